@@ -0,0 +1,79 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.HtmxDemoApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Renders the HTMX fragments through the full Spring MVC and Thymeleaf view stack, with
+ * and without the fragment cache, with template caching on as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FragmentRenderBenchmark {
+
+    @Param({"true", "false"})
+    public boolean fragmentCache;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        // DevTools is on the test classpath; its restart class loader would skew the numbers.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(HtmxDemoApplication.class)
+                .run("--server.port=0",
+                        "--spring.thymeleaf.cache=true",
+                        "--logging.level.root=WARN",
+                        "--htmx.fragment-cache.enabled=" + fragmentCache);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String taskDropdown() throws Exception {
+        return mockMvc.perform(post("/tasksearch/search").param("query", "de").header("HX-Request", "true"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String taskDetail() throws Exception {
+        return mockMvc.perform(get("/tasksearch/3").header("HX-Request", "true"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String countDisplay() throws Exception {
+        return mockMvc.perform(post("/counter/increment").header("HX-Request", "true"))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
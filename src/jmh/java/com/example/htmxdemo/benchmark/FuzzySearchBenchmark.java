@@ -0,0 +1,52 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.tasksearch.FuzzyResult;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of typo-tolerant search. With the default 25ms budget the tail should
+ * stay near the budget however large the corpus; the 10s budget shows the unbounded cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FuzzySearchBenchmark {
+
+    @Param({SyntheticTasks.BUNDLED, "100000", "1000000"})
+    public String corpus;
+
+    @Param({"authetication", "databse schema", "deploi", "zzzzzz"})
+    public String query;
+
+    @Param({"PT0.025S", "PT10S"})
+    public String budget;
+
+    private TaskSearchService service;
+
+    @Setup
+    public void setUp() {
+        service = SyntheticTasks.service(corpus, Duration.parse(budget));
+    }
+
+    @Benchmark
+    public FuzzyResult fuzzySearch() {
+        return service.fuzzySearch(query, 20);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.tasksearch.TaskPage;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First result page for broad queries with matching and ranking spread over 1 to 8 shards, reporting
+ * throughput and the latency distribution. Shard counts above the machine's cores show the
+ * cost of oversubscription, and the 10000-task corpus stays below the parallel threshold.
+ * Run with {@code -t <threads>} to see how concurrent requests compete for the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ShardedSearchBenchmark {
+
+    @Param({"10000", "1000000", "3000000"})
+    public String corpus;
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"d", "se", "data"})
+    public String query;
+
+    private TaskSearchService service;
+
+    @Setup
+    public void setUp() {
+        service = SyntheticTasks.service(corpus, Duration.ofMillis(25), 0, shards);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.stop();
+    }
+
+    @Benchmark
+    public TaskPage searchFirstPage() {
+        return service.searchPage(query, null, 20);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic task corpora for benchmarks. "bundled" loads {@code tasks.json}; any other
+ * value is a row count of names and descriptions drawn from the bundled task vocabulary.
+ */
+final class SyntheticTasks {
+
+    static final String BUNDLED = "bundled";
+
+    private static final String[] WORDS = {
+            "setup", "development", "environment", "create", "user", "authentication", "design",
+            "database", "schema", "write", "api", "documentation", "implement", "search",
+            "feature", "deploy", "production", "server", "configure", "ci/cd", "pipeline",
+            "optimize", "performance", "review", "code", "testing", "unit", "tests", "fix",
+            "security", "vulnerabilities", "refactor", "legacy", "migrate", "cloud", "monitor",
+            "logging", "caching", "layer", "integrate", "payment", "gateway", "mobile", "app",
+            "dashboard", "analytics", "backup", "strategy", "notification", "service"
+    };
+
+    private SyntheticTasks() {
+    }
+
+    static TaskSearchService service(String corpus) {
+        return service(corpus, Duration.ofMillis(25));
+    }
+
+    static TaskSearchService service(String corpus, Duration fuzzyBudget) {
+        return service(corpus, fuzzyBudget, 1_000_000);
+    }
+
+    static TaskSearchService service(String corpus, Duration fuzzyBudget, long searchCacheSlots) {
+        return service(corpus, fuzzyBudget, searchCacheSlots, 1);
+    }
+
+    static TaskSearchService service(String corpus, Duration fuzzyBudget, long searchCacheSlots, int searchShards) {
+        TaskSearchService service = new TaskSearchService(event -> { }, fuzzyBudget, searchCacheSlots,
+                searchShards, 20_000);
+        service.loadTasks();
+        if (!BUNDLED.equals(corpus)) {
+            service.replaceAllTasks(generate(Integer.parseInt(corpus), 42));
+        }
+        return service;
+    }
+
+    static List<Task> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Task((long) i, capitalize(words(random, 2 + random.nextInt(3))), words(random, 12)));
+        }
+        return tasks;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskLookupBenchmark {
+
+    @Param({SyntheticTasks.BUNDLED, "100000", "1000000"})
+    public String corpus;
+
+    private TaskSearchService service;
+    private int size;
+
+    @Setup
+    public void setUp() {
+        service = SyntheticTasks.service(corpus);
+        size = service.getAllTasks().size();
+    }
+
+    @Benchmark
+    public Optional<Task> getTaskById() {
+        return service.getTaskById(1L + ThreadLocalRandom.current().nextInt(size));
+    }
+}
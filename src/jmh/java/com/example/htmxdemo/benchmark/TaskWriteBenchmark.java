@@ -0,0 +1,56 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single write against stores of growing size. Each write copies one id-map segment,
+ * so the average should grow with the square root of the row count, not linearly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskWriteBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private TaskStore store;
+
+    @Setup
+    public void setUp() {
+        store = new TaskStore(SyntheticTasks.generate(rows, 42));
+    }
+
+    @Benchmark
+    public boolean updateTask() {
+        long id = 1L + ThreadLocalRandom.current().nextInt(rows);
+        return store.update(new Task(id, "Updated task " + id, "Rewritten description"));
+    }
+
+    @Benchmark
+    public boolean removeAndAddTask() {
+        long id = 1L + ThreadLocalRandom.current().nextInt(rows);
+        Task task = store.get(id).orElseThrow();
+        store.remove(id);
+        store.add(task);
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.htmxdemo.benchmark;
+
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Types the first {@value #TYPED} characters of a random task name one keystroke at a time,
+ * fetching the first result page after each, as the autocomplete box does. Compares the
+ * search cache switched off ({@code searchCacheSlots=0}) with the default size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TypeAheadBenchmark {
+
+    private static final int TYPED = 14;
+
+    @Param({"100000", "1000000"})
+    public String corpus;
+
+    @Param({"0", "1000000"})
+    public long searchCacheSlots;
+
+    private TaskSearchService service;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        service = SyntheticTasks.service(corpus, Duration.ofMillis(25), searchCacheSlots);
+        List<Task> tasks = service.getAllTasks();
+        Random random = new Random(42);
+        queries = new String[4096];
+        for (int i = 0; i < queries.length; i++) {
+            String name = tasks.get(random.nextInt(tasks.size())).name();
+            queries[i] = name.substring(0, Math.min(TYPED, name.length()));
+        }
+    }
+
+    @Benchmark
+    public void typeQuery(Blackhole blackhole) {
+        String query = queries[next++ & (queries.length - 1)];
+        for (int length = 1; length <= query.length(); length++) {
+            blackhole.consume(service.searchPage(query.substring(0, length), null, 20));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.htmxdemo.benchmark.load;
+
+import com.example.htmxdemo.HtmxDemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Boots the application in-process on a random port with production-like settings. */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        // DevTools is on the test classpath; its restart class loader would skew the numbers.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.thymeleaf.cache=true",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Every simulated user shares one address; --ratelimit.enabled=true measures the limiter.
+                "--ratelimit.enabled=false"));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(HtmxDemoApplication.class).run(args.toArray(String[]::new));
+    }
+
+    static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.htmxdemo.benchmark.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated user visit: a sequence of htmx requests sent the way the pages send them,
+ * with {@code HX-Request}, {@code HX-Target} and {@code HX-Trigger} headers, the search
+ * client/sequence headers and the form state token. Later steps are built from earlier
+ * responses (session cookie, form state, task ids in the dropdown).
+ */
+final class HtmxFlow {
+
+    private static final Pattern TASK_LINK = Pattern.compile("/tasksearch/(\\d+)");
+    private static final Pattern FORM_STATE = Pattern.compile("name=\"formState\" value=\"([^\"]*)\"");
+    private static final String[][] TYPING = {
+            {"d", "da", "dat", "data", "datab", "database"},
+            {"a", "au", "aut", "auth"},
+            {"s", "se", "set", "setu", "setup"},
+            {"i", "im", "imp", "impl", "imple"},
+            {"c", "cr", "cre", "crea", "create"},
+            {"o", "op", "opt", "opti"},
+    };
+
+    enum Kind {
+        COUNTER, SEARCH, USERFORM
+    }
+
+    record Step(String endpoint, Function<HtmxFlow, HttpRequest> request) {
+    }
+
+    private final String base;
+    private final Random random;
+    private final List<Step> steps;
+    private final String searchClient;
+    private int searchSeq;
+    private String cookie;
+    private String formState = "";
+    private String lastBody = "";
+
+    HtmxFlow(String base, Kind kind, Random random) {
+        this.base = base;
+        this.random = random;
+        this.searchClient = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+        this.steps = switch (kind) {
+            case COUNTER -> counter();
+            case SEARCH -> search();
+            case USERFORM -> userForm();
+        };
+    }
+
+    List<Step> steps() {
+        return steps;
+    }
+
+    void observe(HttpResponse<String> response) {
+        response.headers().firstValue("Set-Cookie")
+                .map(value -> value.substring(0, value.indexOf(';') < 0 ? value.length() : value.indexOf(';')))
+                .ifPresent(value -> cookie = value);
+        lastBody = response.body() == null ? "" : response.body();
+        Matcher state = FORM_STATE.matcher(lastBody);
+        if (state.find()) {
+            formState = state.group(1);
+        }
+    }
+
+    private List<Step> counter() {
+        return List.of(new Step("counter/increment",
+                flow -> flow.post("/counter/increment", "", "count-display")));
+    }
+
+    // Typing into the autocomplete box, optionally scrolling to the next page, then opening a result.
+    private List<Step> search() {
+        List<Step> steps = new ArrayList<>();
+        for (String query : TYPING[random.nextInt(TYPING.length)]) {
+            steps.add(new Step("tasksearch/search", flow -> flow.post("/tasksearch/search", "query=" + encode(query),
+                    "task-dropdown", "X-Search-Client", searchClient, "X-Search-Seq", Integer.toString(++searchSeq))));
+        }
+        steps.add(new Step("tasksearch/{id}", flow -> {
+            List<String> ids = new ArrayList<>();
+            Matcher link = TASK_LINK.matcher(flow.lastBody);
+            while (link.find()) {
+                ids.add(link.group(1));
+            }
+            String id = ids.isEmpty() ? "1" : ids.get(flow.random.nextInt(ids.size()));
+            return flow.request("/tasksearch/" + id, "task-detail").GET().build();
+        }));
+        return steps;
+    }
+
+    private List<Step> userForm() {
+        String name = "User " + random.nextInt(100_000);
+        String email = "user" + random.nextInt(100_000) + "@example.com";
+        String phone = String.format("%010d", random.nextLong(10_000_000_000L));
+        String tag = "tag-" + random.nextInt(1000);
+        return List.of(
+                new Step("userform/validate/{field}", flow -> flow.post("/userform/validate/name", "name=" + encode(name), "name")),
+                new Step("userform/validate/{field}", flow -> flow.post("/userform/validate/email", "email=" + encode(email), "email")),
+                new Step("userform/validate/{field}", flow -> flow.post("/userform/validate/phone", "phone=" + phone, "phone")),
+                new Step("userform/add-tag", flow -> flow.post("/userform/add-tag",
+                        "newTag=" + tag + flow.formStateParam(), "newTag")),
+                new Step("userform/submit", flow -> flow.post("/userform/submit",
+                        "name=" + encode(name) + "&email=" + encode(email) + "&phone=" + phone + flow.formStateParam(),
+                        "form-section")));
+    }
+
+    private HttpRequest post(String path, String body, String trigger, String... headers) {
+        HttpRequest.Builder builder = request(path, trigger)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest.Builder request(String path, String target) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+                .header("HX-Request", "true")
+                .header("HX-Target", target)
+                .header("HX-Current-URL", base + "/");
+        if (cookie != null) {
+            builder.header("Cookie", cookie);
+        }
+        return builder;
+    }
+
+    private String formStateParam() {
+        return formState.isEmpty() ? "" : "&formState=" + encode(formState);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
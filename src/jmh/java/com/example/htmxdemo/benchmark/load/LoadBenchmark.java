@@ -0,0 +1,123 @@
+package com.example.htmxdemo.benchmark.load;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request throughput and latency of the counter, task search and user form
+ * endpoints with Tomcat on platform threads and on virtual threads. Each mode boots the
+ * application in-process on a random port and drives it with a fixed number of closed-loop
+ * HTTP clients, after a warm-up phase whose results are discarded.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec@load}. Options (as
+ * {@code key=value} in {@code -Dload.args}): {@code duration}, {@code warmup} (seconds),
+ * {@code concurrency}, and {@code tomcatThreads} to shrink the platform pool so saturation
+ * shows up at laptop-scale concurrency.
+ */
+public final class LoadBenchmark {
+
+    private static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("counter", "/counter/increment", ""),
+            new Endpoint("tasksearch", "/tasksearch/search", "query=de"),
+            new Endpoint("userform", "/userform/validate", "name=John+Doe&email=john%40example.com&phone=1234567890"));
+
+    private LoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkApplication.parseOptions(args);
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "15")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "256"));
+        String tomcatThreads = options.getOrDefault("tomcatThreads", "200");
+
+        if (Runtime.version().feature() < 21) {
+            System.out.printf("Java %d has no virtual threads: the 'virtual' run falls back to platform threads.%n",
+                    Runtime.version().feature());
+        }
+        System.out.printf("%-9s %-11s %12s %10s %10s %10s %8s%n",
+                "mode", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtual : new boolean[] {false, true}) {
+            try (ConfigurableApplicationContext context = BenchmarkApplication.start(
+                    "--spring.threads.virtual.enabled=" + virtual, "--server.tomcat.threads.max=" + tomcatThreads)) {
+                String base = BenchmarkApplication.baseUrl(context);
+                for (Endpoint endpoint : ENDPOINTS) {
+                    drive(base, endpoint, concurrency, warmup);
+                    Result result = drive(base, endpoint, concurrency, duration);
+                    System.out.printf("%-9s %-11s %12.0f %10.2f %10.2f %10.2f %8d%n",
+                            virtual ? "virtual" : "platform", endpoint.name(), result.throughput(),
+                            result.p50() / 1e6, result.p99() / 1e6, result.max() / 1e6, result.errors());
+                }
+            }
+        }
+    }
+
+    private static Result drive(String base, Endpoint endpoint, int concurrency, Duration duration)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + endpoint.path()))
+                .header("HX-Request", "true")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(endpoint.body()))
+                .build();
+
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long end = System.nanoTime() + duration.toNanos();
+        long started = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+            clients.execute(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                recorder.recordError();
+                            } else {
+                                recorder.record(System.nanoTime() - sent);
+                            }
+                        } catch (Exception e) {
+                            recorder.recordError();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.SECONDS);
+
+        long[] sorted = LatencyRecorder.mergeSorted(recorders);
+        int errors = recorders.stream().mapToInt(LatencyRecorder::errors).sum();
+        return new Result(sorted.length / seconds, LatencyRecorder.percentile(sorted, 50),
+                LatencyRecorder.percentile(sorted, 99), sorted.length == 0 ? 0 : sorted[sorted.length - 1], errors);
+    }
+
+    private record Endpoint(String name, String path, String body) {
+    }
+
+    private record Result(double throughput, long p50, long p99, long max, int errors) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.htmxdemo.benchmark.load;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the HTTP surface. Boots the application on a random port and replays
+ * realistic htmx visits ({@link HtmxFlow}): counter clicks, autocomplete typing followed by a
+ * detail click, and the user form's validate, add-tag and submit sequence. Prints throughput
+ * and p50/p99/p99.9 latency per endpoint.
+ *
+ * <p>By default the load is open-loop: visits start on a fixed schedule ({@code rate} per
+ * second) whether or not earlier ones have finished, and every latency is measured from the
+ * moment the request was due, not from when it was actually sent. A slow server therefore shows
+ * up as growing latency instead of silently lowering the offered load (coordinated omission).
+ * The same holds within a visit: each step is due one think time after the previous step was
+ * due, so a slow response delays the next request without moving its schedule, and the wait
+ * counts toward that request's latency. {@code mode=closed} runs {@code concurrency} users back
+ * to back instead, for comparison.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec@macro}. Options (as
+ * {@code key=value} in {@code -Dmacro.args}): {@code mode} (open|closed), {@code rate} (visits
+ * per second), {@code concurrency}, {@code duration} and {@code warmup} (seconds),
+ * {@code think} (milliseconds between a user's requests), {@code mix} (weights as
+ * {@code counter:search:userform}) and {@code seed}. Other {@code --key=value} arguments are
+ * passed to the application, e.g. {@code --userform.state.mode=token}.
+ */
+public final class MacroLoadTest {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String base;
+    private final long thinkNanos;
+    private final int[] mix;
+    private final Random random;
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private MacroLoadTest(String base, long thinkNanos, int[] mix, long seed) {
+        this.base = base;
+        this.thinkNanos = thinkNanos;
+        this.mix = mix;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = BenchmarkApplication.parseOptions(args);
+        boolean open = !"closed".equals(options.getOrDefault("mode", "open"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        long think = Long.parseLong(options.getOrDefault("think", "50"));
+        int[] mix = parseMix(options.getOrDefault("mix", "2:5:3"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+            }
+        }
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(appArgs.toArray(String[]::new))) {
+            MacroLoadTest test = new MacroLoadTest(BenchmarkApplication.baseUrl(context),
+                    TimeUnit.MILLISECONDS.toNanos(think), mix, seed);
+            test.run(open, rate, concurrency, warmup);
+            test.recorders.clear();
+            double seconds = test.run(open, rate, concurrency, duration);
+            System.out.printf("%s load, %s, think %d ms, mix counter:search:userform %s%n",
+                    open ? "Open-loop" : "Closed-loop",
+                    open ? rate + " visits/s" : concurrency + " users",
+                    think, options.getOrDefault("mix", "2:5:3"));
+            test.report(seconds);
+        }
+    }
+
+    /** Runs visits for {@code duration} and waits for the stragglers; returns the elapsed seconds. */
+    private double run(boolean open, double rate, int concurrency, Duration duration) throws InterruptedException {
+        long started = System.nanoTime();
+        long end = started + duration.toNanos();
+        if (open) {
+            long interval = (long) (1e9 / rate);
+            for (long due = started; due < end; due += interval) {
+                LockSupport.parkNanos(due - System.nanoTime());
+                visit(due);
+            }
+        } else {
+            for (int i = 0; i < concurrency; i++) {
+                loop(end);
+            }
+            LockSupport.parkNanos(end - System.nanoTime());
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return (System.nanoTime() - started) / 1e9;
+    }
+
+    private void loop(long end) {
+        if (System.nanoTime() < end) {
+            visit(System.nanoTime()).thenRun(() -> loop(end));
+        }
+    }
+
+    private CompletableFuture<Void> visit(long due) {
+        HtmxFlow flow;
+        synchronized (random) {
+            flow = new HtmxFlow(base, pick(), new Random(random.nextLong()));
+        }
+        inFlight.incrementAndGet();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        step(flow, 0, due, done);
+        return done.whenComplete((ignored, error) -> inFlight.decrementAndGet());
+    }
+
+    private void step(HtmxFlow flow, int index, long due, CompletableFuture<Void> done) {
+        if (index == flow.steps().size()) {
+            done.complete(null);
+            return;
+        }
+        HtmxFlow.Step step = flow.steps().get(index);
+        client.sendAsync(step.request().apply(flow), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long now = System.nanoTime();
+                    LatencyRecorder recorder = recorders.computeIfAbsent(step.endpoint(), k -> new LatencyRecorder());
+                    synchronized (recorder) {
+                        if (error != null || response.statusCode() >= 400) {
+                            recorder.recordError();
+                        } else {
+                            recorder.record(now - due);
+                        }
+                    }
+                    if (error != null) {
+                        done.complete(null);
+                        return;
+                    }
+                    flow.observe(response);
+                    long next = due + thinkNanos;
+                    Executor later = CompletableFuture.delayedExecutor(Math.max(0, next - now), TimeUnit.NANOSECONDS);
+                    later.execute(() -> step(flow, index + 1, next, done));
+                });
+    }
+
+    private HtmxFlow.Kind pick() {
+        int total = mix[0] + mix[1] + mix[2];
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        return roll < mix[0] ? HtmxFlow.Kind.COUNTER
+                : roll < mix[0] + mix[1] ? HtmxFlow.Kind.SEARCH
+                : HtmxFlow.Kind.USERFORM;
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%-26s %9s %10s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        List<LatencyRecorder> all = new ArrayList<>();
+        for (Map.Entry<String, LatencyRecorder> entry : new TreeMap<>(recorders).entrySet()) {
+            all.add(entry.getValue());
+            print(entry.getKey(), List.of(entry.getValue()), seconds);
+        }
+        print("all", all, seconds);
+    }
+
+    private static void print(String name, List<LatencyRecorder> recorders, double seconds) {
+        long[] sorted = LatencyRecorder.mergeSorted(recorders);
+        int errors = recorders.stream().mapToInt(LatencyRecorder::errors).sum();
+        System.out.printf("%-26s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %7d%n",
+                name, sorted.length, sorted.length / seconds,
+                LatencyRecorder.percentile(sorted, 50) / 1e6, LatencyRecorder.percentile(sorted, 99) / 1e6,
+                LatencyRecorder.percentile(sorted, 99.9) / 1e6,
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, errors);
+    }
+
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("mix must be counter:search:userform weights, got " + mix);
+        }
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])};
+    }
+}
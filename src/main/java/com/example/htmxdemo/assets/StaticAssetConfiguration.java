@@ -0,0 +1,44 @@
+package com.example.htmxdemo.assets;
+
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+
+/**
+ * Serves the application's stylesheets and scripts, and the libraries vendored under
+ * {@code static/vendor} by the build. Links written with {@code @{...}} in templates are
+ * rewritten to content-hashed names, which are cached as immutable. The {@code .gz} variants
+ * produced by the build are sent to clients that accept gzip. Plain names still resolve but
+ * must be revalidated.
+ */
+@Configuration
+public class StaticAssetConfiguration implements WebMvcConfigurer {
+
+    private static final String[] LOCATIONS = {"css", "js", "vendor"};
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        for (String location : LOCATIONS) {
+            registry.addResourceHandler("/" + location + "/**")
+                    .addResourceLocations("classpath:/static/" + location + "/")
+                    .setCacheControl(CacheControl.noCache())
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new ImmutableVersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResourceUrlEncodingFilter> resourceUrlEncodingFilter() {
+        FilterRegistrationBean<ResourceUrlEncodingFilter> registration =
+                new FilterRegistrationBean<>(new ResourceUrlEncodingFilter());
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ERROR);
+        return registration;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.htmxdemo.counter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes the {@code count-display} fragment to every connected browser over Server-Sent Events.
+ *
+ * <p>Increments are coalesced: once per tick the count is sampled and, if it changed, the
+ * fragment is rendered once and queued for every subscriber. Connections are held as async
+ * requests, so an idle subscriber costs no thread; a fixed pool of sender threads writes the
+ * events. Each subscriber has a small bounded queue, and a client that falls so far behind
+ * that its queue overflows is disconnected rather than buffered without limit. The htmx SSE
+ * extension reconnects it and it receives the current count on arrival.
+ *
+ * <p>The ticker never touches an emitter: writing to or completing one may block behind a
+ * send to a slow client, since both hold the emitter's monitor. Evicting a subscriber only
+ * marks it and removes it from the set; its sender completes the emitter once the send it
+ * may be stuck in returns.
+ */
+@Component
+public class CounterBroadcaster {
+
+    static final String EVENT = "count";
+
+    private static final Logger log = LoggerFactory.getLogger(CounterBroadcaster.class);
+
+    private final CounterService counterService;
+    private final TemplateEngine templateEngine;
+    private final Duration tick;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final int senderThreads;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder dropped = new LongAdder();
+    private ScheduledExecutorService ticker;
+    private ExecutorService senders;
+    private long lastBroadcast = -1;
+
+    public CounterBroadcaster(CounterService counterService,
+                              TemplateEngine templateEngine,
+                              @Value("${counter.sse.tick:100ms}") Duration tick,
+                              @Value("${counter.sse.buffer:16}") int bufferSize,
+                              @Value("${counter.sse.timeout:30m}") Duration timeout,
+                              @Value("${counter.sse.senders:8}") int senderThreads) {
+        this.counterService = counterService;
+        this.templateEngine = templateEngine;
+        this.tick = tick;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.senderThreads = senderThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(daemon("counter-broadcast"));
+        senders = Executors.newFixedThreadPool(senderThreads, daemon("counter-sse-sender"));
+        // Subscribers receive the count on arrival; the ticker only needs to send changes after that.
+        lastBroadcast = counterService.getCount();
+        ticker.scheduleWithFixedDelay(this::broadcast, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(timeout.toMillis()));
+    }
+
+    // The current count is sent on the subscribing thread: a new emitter only buffers it, and the
+    // request thread writes it when it starts the response, so no sender thread writes to the
+    // response before that thread is done with it. A change that lands before the subscriber is
+    // registered is offered again so it is not missed.
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        long count = counterService.getCount();
+        try {
+            emitter.send(SseEmitter.event().name(EVENT).data(render(count)));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        subscribers.add(subscriber);
+        long current = counterService.getCount();
+        if (current != count) {
+            subscriber.offer(render(current));
+        }
+        return subscriber.emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    /** Sends the current count to every subscriber if it changed since the last tick. */
+    void broadcast() {
+        try {
+            long count = counterService.getCount();
+            if (count == lastBroadcast || subscribers.isEmpty()) {
+                return;
+            }
+            lastBroadcast = count;
+            String html = render(count);
+            subscribers.forEach(subscriber -> subscriber.offer(html));
+        } catch (RuntimeException e) {
+            log.warn("Counter broadcast failed", e);
+        }
+    }
+
+    // SSE data lines cannot contain line breaks, and the fragment does not need them.
+    private String render(long count) {
+        Context context = new Context(Locale.ROOT, Map.of("count", count));
+        return templateEngine.process("counter/counter", Set.of("count-display"), context)
+                .replaceAll("\\R\\s*", "");
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<String> pending = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean evicted;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(String html) {
+            if (evicted) {
+                return;
+            }
+            if (!pending.offer(html)) {
+                dropped.increment();
+                evicted = true;
+                subscribers.remove(this);
+                pending.clear();
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // Runs on one sender thread at a time; re-checks the queue and the eviction flag after
+        // releasing the draining flag so neither an event nor an eviction is ever stranded.
+        private void drain() {
+            do {
+                String html;
+                while (!evicted && (html = pending.poll()) != null) {
+                    try {
+                        emitter.send(SseEmitter.event().name(EVENT).data(html));
+                    } catch (IOException | IllegalStateException e) {
+                        disconnect(e);
+                        return;
+                    }
+                }
+                if (evicted) {
+                    emitter.complete();
+                    return;
+                }
+                draining.set(false);
+            } while ((evicted || !pending.isEmpty()) && draining.compareAndSet(false, true));
+        }
+
+        private void disconnect(Exception cause) {
+            evicted = true;
+            if (subscribers.remove(this)) {
+                pending.clear();
+                emitter.completeWithError(cause);
+            }
+        }
+    }
+}
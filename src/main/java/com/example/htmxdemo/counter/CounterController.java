@@ -1,22 +1,32 @@
 package com.example.htmxdemo.counter;
 
+import com.example.htmxdemo.fragment.ConditionalGet;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Controller
 public class CounterController {
 
     private final CounterService counterService;
+    private final CounterBroadcaster broadcaster;
 
-    public CounterController(CounterService counterService) {
+    public CounterController(CounterService counterService, CounterBroadcaster broadcaster) {
         this.counterService = counterService;
+        this.broadcaster = broadcaster;
     }
 
     @GetMapping("/")
-    public String index(Model model) {
-        model.addAttribute("count", counterService.getCount());
+    public String index(WebRequest request, Model model) {
+        long count = counterService.getCount();
+        if (ConditionalGet.notModified(request, "c" + count, -1)) {
+            return null;
+        }
+        model.addAttribute("count", count);
         return "counter/counter";
     }
 
@@ -25,4 +35,9 @@ public class CounterController {
         model.addAttribute("count", counterService.increment());
         return "counter/counter :: count-display";
     }
+
+    @GetMapping(path = "/counter/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return broadcaster.subscribe();
+    }
 }
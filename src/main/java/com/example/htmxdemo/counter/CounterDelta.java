@@ -0,0 +1,14 @@
+package com.example.htmxdemo.counter;
+
+import java.util.Map;
+
+/**
+ * Per-node entries of a {@link PNCounter} as exchanged between replicas. Applying a delta is
+ * idempotent and order-insensitive, so transports may drop, repeat or reorder them.
+ *
+ * @param origin     node that sent the delta
+ * @param increments total increments per node
+ * @param decrements total decrements per node; nodes that never decremented are omitted
+ */
+public record CounterDelta(String origin, Map<String, Long> increments, Map<String, Long> decrements) {
+}
@@ -0,0 +1,13 @@
+package com.example.htmxdemo.counter;
+
+/**
+ * Makes this node's counter changes durable. The counter hands over its running totals rather
+ * than each change, so a journal may keep only the largest totals it has seen.
+ */
+public interface CounterJournal {
+
+    CounterJournal NONE = (increments, decrements) -> { };
+
+    /** Records the local totals; a journal may return before they would survive a crash. */
+    void record(long increments, long decrements);
+}
@@ -0,0 +1,57 @@
+package com.example.htmxdemo.counter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@Configuration
+@EnableConfigurationProperties(CounterReplicationProperties.class)
+public class CounterReplicationConfiguration {
+
+    @Bean
+    PNCounter pnCounter(CounterReplicationProperties properties) {
+        if (!properties.enabled()) {
+            return new PNCounter(CounterService.LOCAL_NODE);
+        }
+        String nodeId = properties.nodeId();
+        return new PNCounter(nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "counter.replication.enabled", havingValue = "true")
+    static class Replication {
+
+        @Bean
+        @ConditionalOnProperty("counter.replication.peers")
+        HttpCounterTransport httpCounterTransport(CounterReplicationProperties properties, ObjectMapper objectMapper) {
+            if (isBlank(properties.nodeId()) || isBlank(properties.secret()) || properties.peerIds().isEmpty()) {
+                throw new IllegalStateException("counter.replication.peers requires counter.replication.node-id, "
+                        + "counter.replication.peer-ids and counter.replication.secret");
+            }
+            return new HttpCounterTransport(properties.peers(), objectMapper, properties.timeout(),
+                    properties.secret().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(CounterTransport.class)
+        LoopbackCounterTransport loopbackCounterTransport() {
+            return new LoopbackCounterTransport();
+        }
+
+        @Bean(initMethod = "start", destroyMethod = "stop")
+        CounterReplicator counterReplicator(PNCounter counter, CounterTransport transport,
+                                            CounterReplicationProperties properties) {
+            return new CounterReplicator(counter, transport, properties.interval(), properties.fullSyncEvery());
+        }
+
+        private static boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.htmxdemo.counter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receives deltas from peers; registered only when {@link HttpCounterTransport} is in use.
+ * Max-merge can never take a value back, so a delta is refused unless it is signed with the
+ * shared secret (401), comes from and names only configured nodes (403), holds no negative
+ * totals (400) and does not lower the sender's own totals (409).
+ */
+@RestController
+@ConditionalOnProperty(prefix = "counter.replication", name = {"enabled", "peers"})
+public class CounterReplicationController {
+
+    private final HttpCounterTransport transport;
+    private final PNCounter counter;
+    private final ObjectMapper objectMapper;
+    private final Set<String> peerIds;
+    private final Set<String> knownNodes;
+
+    public CounterReplicationController(HttpCounterTransport transport, PNCounter counter,
+                                        ObjectMapper objectMapper, CounterReplicationProperties properties) {
+        this.transport = transport;
+        this.counter = counter;
+        this.objectMapper = objectMapper;
+        this.peerIds = Set.copyOf(properties.peerIds());
+        this.knownNodes = new HashSet<>(peerIds);
+        knownNodes.add(counter.nodeId());
+    }
+
+    @PostMapping(HttpCounterTransport.PATH)
+    public ResponseEntity<Void> receive(@RequestHeader(name = HttpCounterTransport.SIGNATURE_HEADER, required = false)
+                                        String signature, @RequestBody byte[] body) {
+        if (!transport.verify(body, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        CounterDelta delta;
+        try {
+            delta = objectMapper.readValue(body, CounterDelta.class);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        HttpStatus rejection = check(delta);
+        if (rejection != null) {
+            return ResponseEntity.status(rejection).build();
+        }
+        transport.deliver(delta);
+        return ResponseEntity.noContent().build();
+    }
+
+    private HttpStatus check(CounterDelta delta) {
+        if (!peerIds.contains(delta.origin())
+                || !knownNodes.containsAll(keys(delta.increments())) || !knownNodes.containsAll(keys(delta.decrements()))) {
+            return HttpStatus.FORBIDDEN;
+        }
+        if (hasNegative(delta.increments()) || hasNegative(delta.decrements())) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (lowers(delta.increments(), counter.remoteIncrements(delta.origin()), delta.origin())
+                || lowers(delta.decrements(), counter.remoteDecrements(delta.origin()), delta.origin())) {
+            return HttpStatus.CONFLICT;
+        }
+        return null;
+    }
+
+    private static Set<String> keys(Map<String, Long> entries) {
+        return entries == null ? Set.of() : entries.keySet();
+    }
+
+    private static boolean hasNegative(Map<String, Long> entries) {
+        return entries != null && entries.values().stream().anyMatch(value -> value == null || value < 0);
+    }
+
+    private static boolean lowers(Map<String, Long> entries, long known, String origin) {
+        Long sent = entries == null ? null : entries.get(origin);
+        return sent != null && sent < known;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.htmxdemo.counter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param enabled       whether the counter is replicated across instances
+ * @param nodeId        this instance's identity in the counter state; must be unique in the
+ *                      cluster. A random id is used when blank, so a restarted instance joins
+ *                      as a new node and never reuses an entry its peers still hold
+ * @param peers         base URLs of the other instances; when empty, deltas go to a
+ *                      {@link CounterTransport} bean if one is defined, else nowhere
+ * @param peerIds       node ids of the other instances; deltas from any other origin, or
+ *                      naming any other node, are refused. Required with {@code peers}, which
+ *                      then also requires a fixed {@code nodeId}
+ * @param secret        HMAC key shared by all instances; every delta sent over HTTP is signed
+ *                      with it and unsigned deltas are refused. Required with {@code peers}
+ * @param interval      how often changes are sent to peers
+ * @param fullSyncEvery every how many rounds the full state is sent instead of a delta
+ * @param timeout       connect and request timeout for sending to a peer
+ */
+@ConfigurationProperties("counter.replication")
+public record CounterReplicationProperties(
+        @DefaultValue("false") boolean enabled,
+        String nodeId,
+        @DefaultValue List<URI> peers,
+        @DefaultValue List<String> peerIds,
+        String secret,
+        @DefaultValue("1s") Duration interval,
+        @DefaultValue("10") int fullSyncEvery,
+        @DefaultValue("2s") Duration timeout) {
+}
@@ -0,0 +1,72 @@
+package com.example.htmxdemo.counter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gossips this node's {@link PNCounter} state to its peers and merges theirs. Every
+ * {@code interval} the local entries are published if they changed; every
+ * {@code fullSyncEvery}-th round, and on shutdown, the full state is sent instead, which
+ * repairs lost deltas and brings newly started peers up to date.
+ */
+public class CounterReplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterReplicator.class);
+
+    private final PNCounter counter;
+    private final CounterTransport transport;
+    private final Duration interval;
+    private final int fullSyncEvery;
+    private ScheduledExecutorService scheduler;
+    private long rounds;
+
+    public CounterReplicator(PNCounter counter, CounterTransport transport, Duration interval, int fullSyncEvery) {
+        this.counter = counter;
+        this.transport = transport;
+        this.interval = interval;
+        this.fullSyncEvery = Math.max(1, fullSyncEvery);
+    }
+
+    public void start() {
+        transport.subscribe(this::receive);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "counter-replication");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::gossip, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Replicating counter as node {} every {}", counter.nodeId(), interval);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+        publish(true);
+    }
+
+    /** Runs one gossip round. */
+    synchronized void gossip() {
+        publish(rounds++ % fullSyncEvery == 0);
+    }
+
+    void receive(CounterDelta delta) {
+        if (!counter.nodeId().equals(delta.origin())) {
+            counter.merge(delta);
+        }
+    }
+
+    private void publish(boolean full) {
+        try {
+            CounterDelta delta = counter.delta(full);
+            if (delta != null) {
+                transport.publish(delta);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Counter replication round failed", e);
+        }
+    }
+}
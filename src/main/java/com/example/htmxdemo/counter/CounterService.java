@@ -1,17 +1,53 @@
 package com.example.htmxdemo.counter;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+/**
+ * Write-optimised 64-bit counter backed by this node's {@link PNCounter} replica. Increments
+ * land on striped {@link java.util.concurrent.atomic.LongAdder} cells, so concurrent requests
+ * do not contend on one memory location, no update is lost and no peer is consulted.
+ *
+ * <p>Reads sum the cells without locking. Because cells only grow, a read issued after an
+ * increment always includes it and successive reads by one caller never go backwards, which
+ * is what the {@code count-display} fragment needs; a read racing other increments may
+ * include some of them but not others. With {@code counter.replication.enabled} the count
+ * also includes other instances' increments as of their last gossip round. With an attached
+ * {@link CounterJournal}, {@link #increment} also hands it the new totals; without one it
+ * skips summing them.
+ */
 @Service
 public class CounterService {
 
-    private int count = 0;
+    static final String LOCAL_NODE = "local";
 
-    public int getCount() {
-        return count;
+    private final PNCounter count;
+    private volatile CounterJournal journal = CounterJournal.NONE;
+
+    public CounterService() {
+        this(new PNCounter(LOCAL_NODE));
+    }
+
+    @Autowired
+    public CounterService(PNCounter count) {
+        this.count = count;
+    }
+
+    public long getCount() {
+        return count.value();
+    }
+
+    public long increment() {
+        long value = count.add(1);
+        CounterJournal journal = this.journal;
+        if (journal != CounterJournal.NONE) {
+            journal.record(count.localIncrements(), count.localDecrements());
+        }
+        return value;
     }
 
-    public int increment() {
-        return ++count;
+    /** Records every later change through {@code journal}, which decides whether to wait for the disk. */
+    public void attach(CounterJournal journal) {
+        this.journal = journal;
     }
 }
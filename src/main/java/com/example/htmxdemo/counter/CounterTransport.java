@@ -0,0 +1,16 @@
+package com.example.htmxdemo.counter;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link CounterDelta}s between counter replicas. Delivery may be lossy and
+ * unordered; {@link CounterReplicator} periodically resends full state to make up for it.
+ */
+public interface CounterTransport {
+
+    /** Sends the delta to every peer without waiting for it to arrive. */
+    void publish(CounterDelta delta);
+
+    /** Registers a listener for deltas received from peers. */
+    void subscribe(Consumer<CounterDelta> listener);
+}
@@ -0,0 +1,99 @@
+package com.example.htmxdemo.counter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Posts deltas as JSON to {@value #PATH} on every peer, fire-and-forget, signed with the shared
+ * secret in the {@value #SIGNATURE_HEADER} header. An unreachable peer only logs at debug
+ * level: it catches up from the next full sync once it is back. Deltas posted by peers arrive
+ * through {@link CounterReplicationController}.
+ */
+public class HttpCounterTransport implements CounterTransport {
+
+    static final String PATH = "/internal/counter/replication";
+    static final String SIGNATURE_HEADER = "X-Counter-Signature";
+
+    private static final Logger log = LoggerFactory.getLogger(HttpCounterTransport.class);
+
+    private final List<URI> peers;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final SecretKeySpec key;
+    private final List<Consumer<CounterDelta>> listeners = new CopyOnWriteArrayList<>();
+
+    public HttpCounterTransport(List<URI> peers, ObjectMapper objectMapper, Duration timeout, byte[] secret) {
+        this.peers = peers.stream().map(peer -> peer.resolve(PATH)).toList();
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(CounterDelta delta) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise counter delta", e);
+        }
+        String signature = sign(body);
+        for (URI peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(peer)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header(SIGNATURE_HEADER, signature)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() >= 300) {
+                            log.debug("Counter delta not delivered to {}: {}", peer,
+                                    error != null ? error.toString() : response.statusCode());
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CounterDelta> listener) {
+        listeners.add(listener);
+    }
+
+    /** Returns the base64url HMAC-SHA256 of {@code body} under the shared secret. */
+    String sign(byte[] body) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(body));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    boolean verify(byte[] body, String signature) {
+        return signature != null && MessageDigest.isEqual(sign(body).getBytes(), signature.getBytes());
+    }
+
+    void deliver(CounterDelta delta) {
+        listeners.forEach(listener -> listener.accept(delta));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.htmxdemo.counter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** In-process transport: delivers each delta synchronously to every replica sharing the instance. */
+public class LoopbackCounterTransport implements CounterTransport {
+
+    private final List<Consumer<CounterDelta>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CounterDelta delta) {
+        listeners.forEach(listener -> listener.accept(delta));
+    }
+
+    @Override
+    public void subscribe(Consumer<CounterDelta> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.htmxdemo.counter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * State-based PN-counter: a pair of grow-only counters (increments and decrements) with one
+ * entry per node. A node only ever raises its own entries, and merging takes the per-node
+ * maximum, so replicas that exchange state in any order, any number of times, converge on
+ * the same value.
+ *
+ * <p>This node's entries are striped {@link LongAdder}s, so {@link #add} never takes a lock or
+ * waits for peers. Other nodes' entries change only on {@link #merge}, which also maintains
+ * their sum, so a read is two adder sums and a volatile load regardless of cluster size.
+ *
+ * <p>A node that restarts under the same id without its journal starts again from zero, while
+ * peers still hold its old totals. Merging raises this node's entries to any higher totals a
+ * peer reports for it, so it picks its count back up and its deltas are no longer refused
+ * as lowering its own totals.
+ */
+public final class PNCounter {
+
+    private final String nodeId;
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder decrements = new LongAdder();
+    private final Map<String, Long> remoteIncrements = new HashMap<>();
+    private final Map<String, Long> remoteDecrements = new HashMap<>();
+    private volatile long remoteValue;
+    private long publishedIncrements = -1;
+    private long publishedDecrements = -1;
+
+    public PNCounter(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public long value() {
+        return increments.sum() - decrements.sum() + remoteValue;
+    }
+
+    /** Total of this node's increments. */
+    public long localIncrements() {
+        return increments.sum();
+    }
+
+    /** Total of this node's decrements. */
+    public long localDecrements() {
+        return decrements.sum();
+    }
+
+    /** Raises this node's totals to the given ones, as recovered from durable storage. */
+    public void restoreLocal(long incrementTotal, long decrementTotal) {
+        raise(increments, incrementTotal);
+        raise(decrements, decrementTotal);
+    }
+
+    public long add(long delta) {
+        if (delta >= 0) {
+            increments.add(delta);
+        } else {
+            decrements.add(-delta);
+        }
+        return value();
+    }
+
+    /**
+     * Returns the state to send to peers: every known entry when {@code full}, otherwise only
+     * this node's entries, or {@code null} if they have not changed since the last call.
+     */
+    public synchronized CounterDelta delta(boolean full) {
+        long incremented = increments.sum();
+        long decremented = decrements.sum();
+        if (!full && incremented == publishedIncrements && decremented == publishedDecrements) {
+            return null;
+        }
+        publishedIncrements = incremented;
+        publishedDecrements = decremented;
+
+        Map<String, Long> sentIncrements = full ? new HashMap<>(remoteIncrements) : new HashMap<>(1);
+        Map<String, Long> sentDecrements = full ? new HashMap<>(remoteDecrements) : new HashMap<>(1);
+        sentIncrements.put(nodeId, incremented);
+        if (decremented > 0) {
+            sentDecrements.put(nodeId, decremented);
+        }
+        return new CounterDelta(nodeId, sentIncrements, sentDecrements);
+    }
+
+    /** The highest increment total merged so far for {@code node}, or 0. */
+    public synchronized long remoteIncrements(String node) {
+        return remoteIncrements.getOrDefault(node, 0L);
+    }
+
+    /** The highest decrement total merged so far for {@code node}, or 0. */
+    public synchronized long remoteDecrements(String node) {
+        return remoteDecrements.getOrDefault(node, 0L);
+    }
+
+    /**
+     * Folds in a peer's state; returns whether the value changed. Entries for this node only
+     * ever raise its own totals, as {@link #restoreLocal} does.
+     */
+    public synchronized boolean merge(CounterDelta delta) {
+        long restored = raise(increments, own(delta.increments())) - raise(decrements, own(delta.decrements()));
+        long change = merge(remoteIncrements, delta.increments()) - merge(remoteDecrements, delta.decrements());
+        if (change != 0) {
+            remoteValue += change;
+        }
+        return restored != 0 || change != 0;
+    }
+
+    private long own(Map<String, Long> entries) {
+        Long value = entries == null ? null : entries.get(nodeId);
+        return value == null ? 0 : value;
+    }
+
+    // Returns how much the adder was raised; an add racing with the raise lands on top of it.
+    private static long raise(LongAdder adder, long total) {
+        long growth = Math.max(0, total - adder.sum());
+        adder.add(growth);
+        return growth;
+    }
+
+    // Returns how much the sum of the entries grew.
+    private long merge(Map<String, Long> entries, Map<String, Long> incoming) {
+        if (incoming == null) {
+            return 0;
+        }
+        long growth = 0;
+        for (Map.Entry<String, Long> entry : incoming.entrySet()) {
+            Long value = entry.getValue();
+            if (nodeId.equals(entry.getKey()) || value == null) {
+                continue;
+            }
+            long current = entries.getOrDefault(entry.getKey(), 0L);
+            if (value > current) {
+                entries.put(entry.getKey(), value);
+                growth += value - current;
+            }
+        }
+        return growth;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.htmxdemo.fragment;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.thymeleaf.spring6.view.ThymeleafView;
+
+import java.util.Map;
+
+/**
+ * {@link ThymeleafView} that serves configured fragments from the {@link FragmentCache},
+ * evaluating the template only on a miss.
+ */
+public class CachingThymeleafView extends ThymeleafView {
+
+    private FragmentCache fragmentCache;
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        FragmentCache cache = fragmentCache();
+        if (!cache.isCacheable(getBeanName())) {
+            super.render(model, request, response);
+            return;
+        }
+
+        RenderedFragment fragment = cache.get(getBeanName(), model == null ? Map.of() : model,
+                key -> renderToString(model, request, response));
+        response.setContentType(fragment.contentType());
+        response.getWriter().write(fragment.html());
+    }
+
+    private RenderedFragment renderToString(Map<String, ?> model, HttpServletRequest request,
+                                            HttpServletResponse response) {
+        CapturingResponse capturing = new CapturingResponse(response);
+        try {
+            super.render(model, request, capturing);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to render fragment " + getBeanName(), e);
+        }
+        return new RenderedFragment(response.getContentType(), capturing.html());
+    }
+
+    private FragmentCache fragmentCache() {
+        if (fragmentCache == null) {
+            fragmentCache = getApplicationContext().getBean(FragmentCache.class);
+        }
+        return fragmentCache;
+    }
+}
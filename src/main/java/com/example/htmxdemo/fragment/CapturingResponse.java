@@ -0,0 +1,28 @@
+package com.example.htmxdemo.fragment;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/** Collects what a view writes to {@link #getWriter()} instead of sending it to the client. */
+final class CapturingResponse extends HttpServletResponseWrapper {
+
+    private final StringWriter html = new StringWriter();
+    private final PrintWriter writer = new PrintWriter(html);
+
+    CapturingResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        return writer;
+    }
+
+    String html() {
+        writer.flush();
+        return html.toString();
+    }
+}
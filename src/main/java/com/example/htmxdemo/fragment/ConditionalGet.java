@@ -0,0 +1,46 @@
+package com.example.htmxdemo.fragment;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Revalidation of rendered pages and fragments against the version of the data they show.
+ * Handlers call {@link #notModified} before building their model and return {@code null} when
+ * it answers {@code true}; Spring then sends {@code 304 Not Modified} without rendering.
+ *
+ * <p>htmx requests and plain navigations to the same URL may receive different markup, so
+ * responses carry {@code Vary: HX-Request} and the variant is part of the ETag: a browser or
+ * proxy never serves a cached fragment as a page or the other way round. The ETag also
+ * identifies this application start, so a deployment with changed templates invalidates
+ * every validator issued before it. {@code Cache-Control: no-cache} makes clients revalidate
+ * on every use instead of guessing a freshness lifetime from {@code Last-Modified}.
+ */
+public final class ConditionalGet {
+
+    private static final long STARTED = System.currentTimeMillis();
+    private static final String GENERATION = Long.toString(STARTED, 36);
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Adds the validators for {@code version} and reports whether the client's copy is current.
+     *
+     * @param version      identifies the data the response is rendered from
+     * @param lastModified when that data last changed, in epoch milliseconds, or {@code -1}
+     */
+    public static boolean notModified(WebRequest request, String version, long lastModified) {
+        HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            response.addHeader(HttpHeaders.VARY, "HX-Request");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        String variant = request.getHeader("HX-Request") != null ? "f" : "p";
+        String etag = "W/\"" + version + "-" + variant + "-" + GENERATION + "\"";
+        return lastModified < 0
+                ? request.checkNotModified(etag)
+                : request.checkNotModified(etag, Math.max(lastModified, STARTED));
+    }
+}
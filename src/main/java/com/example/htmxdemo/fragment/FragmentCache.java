@@ -0,0 +1,80 @@
+package com.example.htmxdemo.fragment;
+
+import com.example.htmxdemo.tasksearch.TasksChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of rendered fragment markup, evicted by Caffeine's W-TinyLFU policy.
+ * Entries are keyed by a {@link FragmentKey} fingerprint of the model and weighed by the
+ * characters of both key and markup. They are dropped wholesale whenever task data changes.
+ * Hit and miss counts are published as the {@code cache.*} meters tagged {@code cache=fragments}.
+ */
+@Component
+public class FragmentCache implements MeterBinder {
+
+    private final FragmentCacheProperties properties;
+    private final Cache<FragmentKey, RenderedFragment> cache;
+
+    public FragmentCache(FragmentCacheProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumChars())
+                .weigher((FragmentKey key, RenderedFragment fragment) -> key.weight() + fragment.html().length())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isCacheable(String viewName) {
+        return properties.enabled() && properties.views().contains(viewName);
+    }
+
+    /** Renders without caching when the model holds a value {@link FragmentKey} cannot fingerprint. */
+    RenderedFragment get(String viewName, Map<String, ?> model, Function<FragmentKey, RenderedFragment> renderer) {
+        FragmentKey key = FragmentKey.of(viewName, fingerprintable(model));
+        return key == null ? renderer.apply(null) : cache.get(key, renderer);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "fragments");
+    }
+
+    @EventListener
+    public void onTasksChanged(TasksChangedEvent event) {
+        invalidateAll();
+    }
+
+    private static Map<String, Object> fingerprintable(Map<String, ?> model) {
+        Map<String, Object> values = new HashMap<>(model.size());
+        model.forEach((name, value) -> {
+            if (!name.startsWith(BindingResult.MODEL_KEY_PREFIX)) {
+                values.put(name, value);
+            }
+        });
+        return values;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.htmxdemo.fragment;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+@Configuration
+@EnableConfigurationProperties(FragmentCacheProperties.class)
+public class FragmentCacheConfiguration {
+
+    @Bean
+    static BeanPostProcessor cachingThymeleafViewPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof ThymeleafViewResolver resolver) {
+                    resolver.setViewClass(CachingThymeleafView.class);
+                }
+                return bean;
+            }
+        };
+    }
+}
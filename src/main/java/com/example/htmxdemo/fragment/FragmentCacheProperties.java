@@ -0,0 +1,19 @@
+package com.example.htmxdemo.fragment;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Set;
+
+/**
+ * @param enabled      whether rendered fragments are cached at all
+ * @param maximumChars total size bound of the cached markup, in characters
+ * @param views        view names, such as {@code "tasksearch/tasksearch :: task-detail"}, whose
+ *                     output depends only on their model and may therefore be cached
+ */
+@ConfigurationProperties("htmx.fragment-cache")
+public record FragmentCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("8000000") long maximumChars,
+        @DefaultValue Set<String> views) {
+}
@@ -0,0 +1,119 @@
+package com.example.htmxdemo.fragment;
+
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Identifies one rendering of a fragment by its view name and a SHA-256 fingerprint of the
+ * model, so a cached entry holds neither the model nor anything it references. The fingerprint
+ * covers every value the template can read: scalars, collections, maps and records (through
+ * their components), each tagged with its type and length so distinct models cannot encode
+ * alike. Task data is part of the model, so a changed task changes the key.
+ */
+record FragmentKey(String viewName, String fingerprint) {
+
+    /** Returns the key for rendering {@code viewName} with {@code model}, or null if a value cannot be fingerprinted. */
+    static FragmentKey of(String viewName, Map<String, ?> model) {
+        Digest digest = new Digest();
+        for (Map.Entry<String, ?> attribute : new TreeMap<>(model).entrySet()) {
+            digest.text(attribute.getKey());
+            if (!digest.value(attribute.getValue())) {
+                return null;
+            }
+        }
+        return new FragmentKey(viewName, digest.finish());
+    }
+
+    /** Approximate characters held by this key, for weighing cache entries. */
+    int weight() {
+        return viewName.length() + fingerprint.length();
+    }
+
+    private static final class Digest {
+        private final MessageDigest sha256;
+        private final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES);
+
+        Digest() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        boolean value(Object value) {
+            if (value == null) {
+                sha256.update((byte) 'n');
+            } else if (value instanceof CharSequence || value instanceof Character) {
+                sha256.update((byte) 's');
+                text(value.toString());
+            } else if (value instanceof Boolean || value instanceof Number || value instanceof Enum<?>) {
+                sha256.update((byte) 'v');
+                text(value.getClass().getName());
+                text(value.toString());
+            } else if (value instanceof Optional<?> optional) {
+                sha256.update((byte) 'o');
+                return value(optional.orElse(null));
+            } else if (value instanceof Collection<?> collection) {
+                sha256.update((byte) 'c');
+                number(collection.size());
+                for (Object element : collection) {
+                    if (!value(element)) {
+                        return false;
+                    }
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                sha256.update((byte) 'm');
+                number(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!value(entry.getKey()) || !value(entry.getValue())) {
+                        return false;
+                    }
+                }
+            } else if (value instanceof Record) {
+                return record(value);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        void text(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            number(bytes.length);
+            sha256.update(bytes);
+        }
+
+        String finish() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256.digest());
+        }
+
+        private boolean record(Object value) {
+            sha256.update((byte) 'r');
+            text(value.getClass().getName());
+            for (RecordComponent component : value.getClass().getRecordComponents()) {
+                try {
+                    if (!value(component.getAccessor().invoke(value))) {
+                        return false;
+                    }
+                } catch (ReflectiveOperationException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void number(long value) {
+            scratch.clear();
+            sha256.update(scratch.putLong(value).array());
+        }
+    }
+}
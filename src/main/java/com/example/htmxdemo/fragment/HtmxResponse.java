@@ -0,0 +1,75 @@
+package com.example.htmxdemo.fragment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Handler return value that answers one htmx request with several fragments. The first view
+ * is swapped into the request's target as usual; every further view is sent out-of-band and
+ * replaces the element with the same id. Named events are raised through {@code HX-Trigger}.
+ *
+ * <pre>{@code
+ * return HtmxResponse.view("tasksearch/tasksearch :: task-detail")
+ *         .oob("tasksearch/tasksearch :: task-dropdown")
+ *         .trigger("taskSelected", Map.of("name", task.name()))
+ *         .build();
+ * }</pre>
+ */
+public final class HtmxResponse {
+
+    private final List<String> views;
+    private final Map<String, Object> triggers;
+
+    private HtmxResponse(List<String> views, Map<String, Object> triggers) {
+        this.views = List.copyOf(views);
+        this.triggers = Collections.unmodifiableMap(new LinkedHashMap<>(triggers));
+    }
+
+    public static Builder view(String viewName) {
+        return new Builder(viewName);
+    }
+
+    /** The primary view followed by the out-of-band views, in render order. */
+    public List<String> views() {
+        return views;
+    }
+
+    public Map<String, Object> triggers() {
+        return triggers;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" + ", views);
+    }
+
+    public static final class Builder {
+        private final List<String> views = new ArrayList<>();
+        private final Map<String, Object> triggers = new LinkedHashMap<>();
+
+        private Builder(String viewName) {
+            views.add(viewName);
+        }
+
+        public Builder oob(String viewName) {
+            views.add(viewName);
+            return this;
+        }
+
+        public Builder trigger(String event) {
+            return trigger(event, "");
+        }
+
+        public Builder trigger(String event, Object detail) {
+            triggers.put(event, detail);
+            return this;
+        }
+
+        public HtmxResponse build() {
+            return new HtmxResponse(views, triggers);
+        }
+    }
+}
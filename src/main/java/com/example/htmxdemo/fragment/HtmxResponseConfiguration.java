@@ -0,0 +1,45 @@
+package com.example.htmxdemo.fragment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.util.List;
+
+/** Lets handler methods return an {@link HtmxResponse}. */
+@Configuration
+public class HtmxResponseConfiguration implements WebMvcConfigurer {
+
+    private final ThymeleafViewResolver viewResolver;
+    private final ObjectMapper objectMapper;
+
+    public HtmxResponseConfiguration(ThymeleafViewResolver viewResolver, ObjectMapper objectMapper) {
+        this.viewResolver = viewResolver;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void addReturnValueHandlers(List<HandlerMethodReturnValueHandler> handlers) {
+        handlers.add(new HandlerMethodReturnValueHandler() {
+            @Override
+            public boolean supportsReturnType(MethodParameter returnType) {
+                return HtmxResponse.class.isAssignableFrom(returnType.getParameterType());
+            }
+
+            @Override
+            public void handleReturnValue(Object returnValue, MethodParameter returnType,
+                                          ModelAndViewContainer mavContainer, NativeWebRequest webRequest) {
+                if (returnValue == null) {
+                    mavContainer.setRequestHandled(true);
+                    return;
+                }
+                mavContainer.setView(new HtmxResponseView((HtmxResponse) returnValue, viewResolver, objectMapper));
+            }
+        });
+    }
+}
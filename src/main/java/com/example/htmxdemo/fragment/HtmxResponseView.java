@@ -0,0 +1,93 @@
+package com.example.htmxdemo.fragment;
+
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders every view of an {@link HtmxResponse} against the same model and writes them as one
+ * body, marking all but the first with {@code hx-swap-oob}. Fragments configured for the
+ * {@link FragmentCache} are served from it as usual.
+ *
+ * <p>Trigger details are written to {@code HX-Trigger} with every non-ASCII character
+ * escaped as <code>&#92;uXXXX</code>: header values are sent as ISO-8859-1, so a task name in
+ * any other script would reach the browser garbled.
+ */
+public class HtmxResponseView implements View {
+
+    private static final String CONTENT_TYPE = "text/html;charset=UTF-8";
+    private static final String OOB_ATTRIBUTE = " hx-swap-oob=\"true\"";
+
+    private final HtmxResponse htmxResponse;
+    private final ViewResolver viewResolver;
+    private final ObjectWriter triggerWriter;
+
+    HtmxResponseView(HtmxResponse htmxResponse, ViewResolver viewResolver, ObjectMapper objectMapper) {
+        this.htmxResponse = htmxResponse;
+        this.viewResolver = viewResolver;
+        this.triggerWriter = objectMapper.writer().with(JsonWriteFeature.ESCAPE_NON_ASCII);
+    }
+
+    public HtmxResponse htmxResponse() {
+        return htmxResponse;
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws Exception {
+        Locale locale = RequestContextUtils.getLocale(request);
+        List<String> views = htmxResponse.views();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < views.size(); i++) {
+            View view = viewResolver.resolveViewName(views.get(i), locale);
+            if (view == null) {
+                throw new IllegalStateException("Could not resolve view " + views.get(i));
+            }
+            CapturingResponse capturing = new CapturingResponse(response);
+            view.render(model, request, capturing);
+            String html = capturing.html();
+            body.append(i == 0 ? html : markOutOfBand(html));
+        }
+
+        if (!htmxResponse.triggers().isEmpty()) {
+            response.setHeader("HX-Trigger", triggerWriter.writeValueAsString(htmxResponse.triggers()));
+        }
+        response.setContentType(CONTENT_TYPE);
+        response.getWriter().write(body.toString());
+    }
+
+    // Adds hx-swap-oob to the fragment's root element, after its tag name.
+    static String markOutOfBand(String html) {
+        for (int start = html.indexOf('<'); start >= 0; start = html.indexOf('<', start + 1)) {
+            if (start + 1 < html.length() && Character.isLetter(html.charAt(start + 1))) {
+                int end = start + 1;
+                while (end < html.length() && isTagNameChar(html.charAt(end))) {
+                    end++;
+                }
+                int tagEnd = html.indexOf('>', end);
+                if (tagEnd >= 0 && html.substring(end, tagEnd).contains("hx-swap-oob")) {
+                    return html;
+                }
+                return html.substring(0, end) + OOB_ATTRIBUTE + html.substring(end);
+            }
+        }
+        return html;
+    }
+
+    private static boolean isTagNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '-' || c == ':';
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.htmxdemo.fragment;
+
+record RenderedFragment(String contentType, String html) {
+}
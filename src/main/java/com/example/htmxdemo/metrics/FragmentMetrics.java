@@ -0,0 +1,60 @@
+package com.example.htmxdemo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-fragment meters, tagged by view name and by whether the request came from htmx.
+ * Meters are resolved once per tag combination and reused, keeping the per-request cost to
+ * a map lookup and the recording itself.
+ */
+@Component
+public class FragmentMetrics {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public FragmentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    void record(String fragment, boolean htmx, long renderNanos, long bytes, int results) {
+        Meters m = meters.computeIfAbsent(fragment + (htmx ? "|hx" : "|page"), key -> new Meters(fragment, htmx));
+        m.render.record(renderNanos, TimeUnit.NANOSECONDS);
+        m.size.record(bytes);
+        if (results >= 0) {
+            m.results.record(results);
+        }
+    }
+
+    private final class Meters {
+        private final Timer render;
+        private final DistributionSummary size;
+        private final DistributionSummary results;
+
+        Meters(String fragment, boolean htmx) {
+            String hx = String.valueOf(htmx);
+            render = Timer.builder("htmx.fragment.render")
+                    .description("Time spent rendering a view or fragment")
+                    .tags("fragment", fragment, "hx", hx)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            size = DistributionSummary.builder("htmx.fragment.size")
+                    .description("Response body size of a rendered view or fragment")
+                    .baseUnit("bytes")
+                    .tags("fragment", fragment, "hx", hx)
+                    .publishPercentileHistogram()
+                    .register(registry);
+            results = DistributionSummary.builder("htmx.search.results")
+                    .description("Number of tasks rendered into a search fragment")
+                    .tags("fragment", fragment, "hx", hx)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.htmxdemo.metrics;
+
+import com.example.htmxdemo.fragment.HtmxResponseView;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.WebUtils;
+
+import java.util.Collection;
+
+/**
+ * Times view rendering (between {@code postHandle} and {@code afterCompletion}) and reports it
+ * together with the bytes written and, for search fragments, the number of tasks rendered.
+ */
+class FragmentMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String RENDER_STARTED = FragmentMetricsInterceptor.class.getName() + ".renderStarted";
+    private static final String FRAGMENT = FragmentMetricsInterceptor.class.getName() + ".fragment";
+    private static final String RESULTS = FragmentMetricsInterceptor.class.getName() + ".results";
+
+    private final FragmentMetrics metrics;
+
+    FragmentMetricsInterceptor(FragmentMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null) {
+            return;
+        }
+        String fragment = modelAndView.getView() instanceof HtmxResponseView view
+                ? view.htmxResponse().toString()
+                : modelAndView.getViewName();
+        if (fragment == null) {
+            return;
+        }
+        request.setAttribute(FRAGMENT, fragment);
+        if (modelAndView.getModel().get("tasks") instanceof Collection<?> tasks) {
+            request.setAttribute(RESULTS, tasks.size());
+        }
+        request.setAttribute(RENDER_STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(RENDER_STARTED) instanceof Long started)) {
+            return;
+        }
+        long renderNanos = System.nanoTime() - started;
+        ByteCountingResponse counting = WebUtils.getNativeResponse(response, ByteCountingResponse.class);
+        long bytes = counting == null ? 0 : counting.bytesWritten();
+        int results = request.getAttribute(RESULTS) instanceof Integer count ? count : -1;
+        metrics.record((String) request.getAttribute(FRAGMENT), request.getHeader("HX-Request") != null,
+                renderNanos, bytes, results);
+    }
+}
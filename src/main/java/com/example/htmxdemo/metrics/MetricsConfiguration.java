@@ -0,0 +1,50 @@
+package com.example.htmxdemo.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfiguration implements WebMvcConfigurer {
+
+    private final FragmentMetrics fragmentMetrics;
+
+    public MetricsConfiguration(FragmentMetrics fragmentMetrics) {
+        this.fragmentMetrics = fragmentMetrics;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new FragmentMetricsInterceptor(fragmentMetrics));
+    }
+
+    @Bean
+    FilterRegistrationBean<Filter> byteCountingFilter() {
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(
+                (request, response, chain) -> chain.doFilter(request,
+                        new ByteCountingResponse((HttpServletResponse) response)));
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+
+    /** Adds an {@code hx} tag to the standard {@code http.server.requests} metrics. */
+    @Bean
+    DefaultServerRequestObservationConvention htmxServerRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                boolean htmx = context.getCarrier().getHeader("HX-Request") != null;
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("hx", String.valueOf(htmx)));
+            }
+        };
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.htmxdemo.persistence;
+
+import com.example.htmxdemo.counter.CounterService;
+import com.example.htmxdemo.counter.PNCounter;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistenceConfiguration.class);
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "persistence.enabled", havingValue = "true")
+    StateJournal stateJournal(PersistenceProperties properties, CounterService counterService, PNCounter counter,
+                              TaskSearchService taskService, Environment environment) {
+        if (environment.getProperty("counter.replication.enabled", Boolean.class, false)
+                && environment.getProperty("counter.replication.node-id", "").isBlank()) {
+            log.warn("counter.replication.node-id is not set; recovered increments will be counted again "
+                    + "under a new node id by peers that still hold the old one");
+        }
+        return new StateJournal(properties.directory(), properties.segmentSize().toBytes(), properties.syncCounter(),
+                counterService, counter, taskService);
+    }
+}
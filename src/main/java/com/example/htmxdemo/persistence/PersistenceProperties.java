@@ -0,0 +1,25 @@
+package com.example.htmxdemo.persistence;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * @param enabled     whether the counter and the tasks are kept across restarts. Once enabled,
+ *                    the persisted tasks take precedence over the bundled {@code tasks.json}
+ * @param directory   where the log segments and snapshots are written
+ * @param segmentSize log size after which a new segment is started and a snapshot is taken,
+ *                    which bounds how much log a restart has to replay
+ * @param syncCounter whether an increment is acknowledged only once it is on disk. This costs
+ *                    a share of one fsync per click; without it, the increments of the batch
+ *                    in flight are lost if the process dies
+ */
+@ConfigurationProperties("persistence")
+public record PersistenceProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data") Path directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("true") boolean syncCounter) {
+}
@@ -0,0 +1,392 @@
+package com.example.htmxdemo.persistence;
+
+import com.example.htmxdemo.counter.CounterJournal;
+import com.example.htmxdemo.counter.CounterService;
+import com.example.htmxdemo.counter.PNCounter;
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskJournal;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps the counter and the tasks across restarts in a {@link WriteAheadLog} plus snapshots.
+ *
+ * <p>Every record is idempotent, so replaying a record whose effect a snapshot already holds is
+ * harmless. Counter records carry this node's running totals, and replay keeps the largest.
+ * Task records carry the whole task or its removal. The counter is the hot path, so it never
+ * queues a record per increment. It raises the totals waiting to be written and requests a
+ * commit only if none is pending, and the log's trailer writes the totals once per batch, so
+ * increments neither take the log's lock nor contend with each other. With {@code syncCounter}
+ * an increment requests and waits for a commit of its own; without it, a crash can lose the
+ * increments of the last batch.
+ *
+ * <p>When the log moves to a new segment, a snapshot of the full state is written in the
+ * background, and the segments before it are deleted. Replay then reads one snapshot and at
+ * most a segment or two, whatever the history. A snapshot named after segment {@code n} is
+ * captured after {@code n} was opened. It therefore includes every record in earlier segments
+ * and only replays later ones. Replacing every task is not logged record by record. The
+ * journal only requests a rotation, and the rotation's snapshot then captures the new set. The
+ * ticket it hands out is negated, so {@link #awaitDurable} knows to also wait for that snapshot.
+ * Nothing blocks while the caller holds its mutation lock.
+ */
+public class StateJournal implements CounterJournal, TaskJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(StateJournal.class);
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x4854_4d58;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final byte COUNTER = 1;
+    private static final byte PUT = 2;
+    private static final byte REMOVE = 3;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean syncCounter;
+    private final CounterService counterService;
+    private final PNCounter counter;
+    private final TaskSearchService taskService;
+    private final AtomicLong increments = new AtomicLong();
+    private final AtomicLong decrements = new AtomicLong();
+    private final AtomicBoolean commitRequested = new AtomicBoolean();
+    private final ExecutorService snapshots = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "state-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object snapshotLock = new Object();
+    private long snapshotted;
+    private long failedSnapshot;
+    private IOException snapshotFailure;
+    private long writtenIncrements;
+    private long writtenDecrements;
+    private WriteAheadLog wal;
+
+    public StateJournal(Path directory, long segmentBytes, boolean syncCounter, CounterService counterService,
+                        PNCounter counter, TaskSearchService taskService) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.syncCounter = syncCounter;
+        this.counterService = counterService;
+        this.counter = counter;
+        this.taskService = taskService;
+    }
+
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        long next = recover();
+        writtenIncrements = counter.localIncrements();
+        writtenDecrements = counter.localDecrements();
+        increments.set(writtenIncrements);
+        decrements.set(writtenDecrements);
+        wal = new WriteAheadLog(directory, segmentBytes, this::counterTrailer, segment -> snapshots.execute(this::snapshotInBackground));
+        wal.open(next);
+        counterService.attach(this);
+        taskService.attach(this);
+        snapshots.execute(this::snapshotInBackground);
+    }
+
+    // The log is closed before the snapshot executor, so no rotation can hand it a snapshot after
+    // it stops accepting them.
+    public void stop() throws IOException, InterruptedException {
+        counterService.attach(CounterJournal.NONE);
+        taskService.attach(TaskJournal.NONE);
+        wal.sync();
+        wal.close();
+        snapshots.shutdown();
+        snapshots.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void record(long incrementTotal, long decrementTotal) {
+        if (increments.get() < incrementTotal) {
+            increments.accumulateAndGet(incrementTotal, Math::max);
+        }
+        if (decrements.get() < decrementTotal) {
+            decrements.accumulateAndGet(decrementTotal, Math::max);
+        }
+        if (syncCounter) {
+            wal.awaitDurable(wal.sync());
+        } else if (!commitRequested.get() && commitRequested.compareAndSet(false, true)) {
+            wal.sync();
+        }
+    }
+
+    @Override
+    public long put(Task task) {
+        return wal.append(encode(PUT, out -> {
+            out.writeLong(task.id());
+            writeString(out, task.name());
+            writeString(out, task.description());
+        }));
+    }
+
+    @Override
+    public long remove(long id) {
+        return wal.append(encode(REMOVE, out -> out.writeLong(id)));
+    }
+
+    @Override
+    public long replacedAll() {
+        return -wal.rotate();
+    }
+
+    @Override
+    public void awaitDurable(long ticket) {
+        wal.awaitDurable(Math.abs(ticket));
+        if (ticket < 0) {
+            awaitSnapshot(wal.currentSegment());
+        }
+    }
+
+    // Any snapshot named after the segment rotated to, or a later one, was captured after the replacement.
+    private void awaitSnapshot(long segment) {
+        synchronized (snapshotLock) {
+            while (snapshotted < segment) {
+                if (failedSnapshot >= segment) {
+                    throw new UncheckedIOException("Snapshot failed", snapshotFailure);
+                }
+                try {
+                    snapshotLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a snapshot", e);
+                }
+            }
+        }
+    }
+
+    // Runs on the log's writer thread before each commit. The request is cleared before the
+    // totals are read, so a total raised after the read always requests another commit.
+    private byte[] counterTrailer() {
+        commitRequested.set(false);
+        long incrementTotal = increments.get();
+        long decrementTotal = decrements.get();
+        if (incrementTotal == writtenIncrements && decrementTotal == writtenDecrements) {
+            return null;
+        }
+        writtenIncrements = incrementTotal;
+        writtenDecrements = decrementTotal;
+        return encode(COUNTER, out -> {
+            out.writeLong(incrementTotal);
+            out.writeLong(decrementTotal);
+        });
+    }
+
+    /** Restores the latest snapshot and the records after it; returns the number of the next segment. */
+    private long recover() throws IOException {
+        long started = System.nanoTime();
+        long snapshot = latestSnapshot();
+        long[] counts = new long[2];
+        Map<Long, Task> tasks = new LinkedHashMap<>();
+        if (snapshot > 0) {
+            readSnapshot(snapshotFile(snapshot), counts, tasks);
+        } else {
+            taskService.getAllTasks().forEach(task -> tasks.put(task.id(), task));
+        }
+        long[] replayed = new long[1];
+        WriteAheadLog.replay(directory, snapshot, record -> {
+            apply(record, counts, tasks);
+            replayed[0]++;
+        });
+
+        counter.restoreLocal(counts[0], counts[1]);
+        if (snapshot > 0 || replayed[0] > 0) {
+            taskService.replaceAllTasks(tasks.values());
+        }
+        long[] segments = WriteAheadLog.segments(directory);
+        long next = Math.max(snapshot, segments.length == 0 ? 0 : segments[segments.length - 1]) + 1;
+        if (snapshot > 0 || replayed[0] > 0) {
+            log.info("Recovered {} tasks and {} local counter increments from {} ({} log records) in {} ms",
+                    tasks.size(), counts[0], directory, replayed[0],
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } else {
+            log.info("Starting a new journal in {}", directory);
+        }
+        return next;
+    }
+
+    private static void apply(ByteBuffer record, long[] counts, Map<Long, Task> tasks) {
+        switch (record.get()) {
+            case COUNTER -> {
+                counts[0] = Math.max(counts[0], record.getLong());
+                counts[1] = Math.max(counts[1], record.getLong());
+            }
+            case PUT -> {
+                long id = record.getLong();
+                tasks.put(id, new Task(id, readString(record), readString(record)));
+            }
+            case REMOVE -> tasks.remove(record.getLong());
+            default -> throw new IllegalStateException("Unknown log record type " + record.get(0));
+        }
+    }
+
+    private void snapshotInBackground() {
+        long segment = wal.currentSegment();
+        try {
+            snapshot(segment);
+            synchronized (snapshotLock) {
+                snapshotted = Math.max(snapshotted, segment);
+                snapshotLock.notifyAll();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot to {} failed; the log keeps growing until one succeeds", directory, e);
+            synchronized (snapshotLock) {
+                failedSnapshot = Math.max(failedSnapshot, segment);
+                snapshotFailure = e instanceof IOException io ? io : new IOException(e);
+                snapshotLock.notifyAll();
+            }
+        }
+    }
+
+    private void snapshot(long segment) throws IOException {
+        Path file = snapshotFile(segment);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        long incrementTotal = counter.localIncrements();
+        long decrementTotal = counter.localDecrements();
+        List<Task> tasks = taskService.getAllTasks();
+
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream fileOut = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(fileOut, crc), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(incrementTotal);
+            out.writeLong(decrementTotal);
+            out.writeInt(tasks.size());
+            for (Task task : tasks) {
+                out.writeLong(task.id());
+                writeString(out, task.name());
+                writeString(out, task.description());
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(crc.getValue());
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        WriteAheadLog.syncDirectory(directory);
+
+        WriteAheadLog.deleteSegmentsBefore(directory, segment);
+        for (long older : snapshots()) {
+            if (older < segment) {
+                Files.deleteIfExists(snapshotFile(older));
+            }
+        }
+    }
+
+    private static void readSnapshot(Path file, long[] counts, Map<Long, Task> tasks) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream fileIn = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+             DataInputStream in = new DataInputStream(new CheckedInputStream(fileIn, crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a snapshot: " + file);
+            }
+            counts[0] = in.readLong();
+            counts[1] = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                tasks.put(id, new Task(id, readString(in), readString(in)));
+            }
+            long expected = crc.getValue();
+            if (new DataInputStream(fileIn).readLong() != expected) {
+                throw new IOException("Snapshot is corrupt: " + file);
+            }
+        }
+    }
+
+    private long latestSnapshot() throws IOException {
+        long[] all = snapshots();
+        return all.length == 0 ? 0 : all[all.length - 1];
+    }
+
+    private long[] snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                            name.length() - SNAPSHOT_SUFFIX.length())))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    private Path snapshotFile(long segment) {
+        return directory.resolve(String.format("%s%016d%s", SNAPSHOT_PREFIX, segment, SNAPSHOT_SUFFIX));
+    }
+
+    private static byte[] encode(byte type, RecordWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.htmxdemo.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of opaque records in numbered segment files. Each record is framed by its
+ * length and CRC-32, so a write torn by a crash is recognised and ignored on replay.
+ *
+ * <p>Writers never touch the file. {@link #append} queues a record and returns a ticket; one
+ * writer thread takes everything queued so far, writes it with a single call, forces it to
+ * disk once and then releases every ticket in the batch (group commit). While one batch is
+ * being forced the next one accumulates, so the number of fsyncs per second stays constant
+ * as writers are added. Before each batch the {@code trailer} supplier may contribute one
+ * more record, which lets a caller coalesce frequent updates into one record per batch.
+ *
+ * <p>Once the current segment reaches the size limit, or when {@link #rotate} asks for it,
+ * later batches go to a new segment and {@code onRotate} is told its number. A process never
+ * appends to a segment written by an earlier one, so replay only ever has to stop at a torn
+ * record at the very end of a segment.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final int FRAME_HEADER = 8;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final Supplier<byte[]> trailer;
+    private final LongConsumer onRotate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queued = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private List<byte[]> pending = new ArrayList<>();
+    private long enqueued;
+    private volatile long durable;
+    private boolean rotateRequested;
+    private boolean closing;
+    private IOException failure;
+    private Thread writer;
+    private FileChannel channel;
+    private volatile long segment;
+    private long segmentSize;
+
+    WriteAheadLog(Path directory, long segmentBytes, Supplier<byte[]> trailer, LongConsumer onRotate) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.trailer = trailer;
+        this.onRotate = onRotate;
+    }
+
+    /** Starts writing to a new segment numbered {@code segment}. */
+    void open(long segment) throws IOException {
+        openSegment(segment);
+        writer = new Thread(this::write, "write-ahead-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    long currentSegment() {
+        return segment;
+    }
+
+    /** Queues a record; it is durable once {@link #awaitDurable} returns for the ticket. */
+    long append(byte[] record) {
+        if (record.length == 0) {
+            throw new IllegalArgumentException("Records must not be empty");
+        }
+        return enqueue(record, false);
+    }
+
+    /**
+     * Returns a ticket that is released by the next commit, after the trailer has been written.
+     * Once the log is closing no commit follows, so the last durable ticket is returned instead.
+     */
+    long sync() {
+        return enqueue(null, false);
+    }
+
+    /** Like {@link #sync}, and switches to a new segment once the commit is done. */
+    long rotate() {
+        return enqueue(null, true);
+    }
+
+    void awaitDurable(long ticket) {
+        if (ticket <= durable) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durable < ticket) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                }
+                if (!writer.isAlive()) {
+                    throw new IllegalStateException("Write-ahead log is closed");
+                }
+                committed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Commits what is queued and stops the writer. */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closing = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    private long enqueue(byte[] record, boolean rotate) {
+        lock.lock();
+        try {
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+            if (closing) {
+                if (record == null && !rotate) {
+                    return durable;
+                }
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            if (record != null) {
+                pending.add(record);
+            }
+            rotateRequested |= rotate;
+            queued.signal();
+            return ++enqueued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write() {
+        List<byte[]> batch = new ArrayList<>();
+        while (true) {
+            long upTo;
+            boolean rotate;
+            lock.lock();
+            try {
+                while (enqueued == durable && !closing) {
+                    queued.awaitUninterruptibly();
+                }
+                if (enqueued == durable) {
+                    return;
+                }
+                List<byte[]> swap = pending;
+                pending = batch;
+                batch = swap;
+                upTo = enqueued;
+                rotate = rotateRequested;
+                rotateRequested = false;
+            } finally {
+                lock.unlock();
+            }
+
+            long rotatedTo = -1;
+            try {
+                byte[] last = trailer.get();
+                if (last != null) {
+                    batch.add(last);
+                }
+                writeBatch(batch);
+                batch.clear();
+                if (rotate || segmentSize >= segmentBytes) {
+                    channel.close();
+                    openSegment(segment + 1);
+                    rotatedTo = segment;
+                }
+            } catch (IOException e) {
+                log.error("Write-ahead log failed; further writes are refused", e);
+                lock.lock();
+                try {
+                    failure = e;
+                    committed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durable = upTo;
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (rotatedTo >= 0) {
+                onRotate.accept(rotatedTo);
+            }
+        }
+    }
+
+    private void writeBatch(List<byte[]> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        int size = 0;
+        for (byte[] record : records) {
+            size += FRAME_HEADER + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] record : records) {
+            crc.reset();
+            crc.update(record);
+            buffer.putInt(record.length).putInt((int) crc.getValue()).put(record);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        segmentSize += size;
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel = FileChannel.open(segmentFile(directory, number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE);
+        syncDirectory(directory);
+        segment = number;
+        segmentSize = 0;
+    }
+
+    static Path segmentFile(Path directory, long number) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, number, SUFFIX));
+    }
+
+    /** Returns the numbers of the segments in {@code directory}, in ascending order. */
+    static long[] segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toArray();
+        }
+    }
+
+    /** Feeds every intact record of the segments numbered {@code from} or higher to {@code records}, in order. */
+    static void replay(Path directory, long from, Consumer<ByteBuffer> records) throws IOException {
+        for (long number : segments(directory)) {
+            if (number >= from) {
+                replaySegment(segmentFile(directory, number), records);
+            }
+        }
+    }
+
+    private static void replaySegment(Path file, Consumer<ByteBuffer> records) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+        }
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= FRAME_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            buffer.position(buffer.position() + length);
+            records.accept(record);
+        }
+        if (buffer.hasRemaining()) {
+            log.warn("Ignoring {} bytes of incomplete records at the end of {}", buffer.remaining(), file);
+        }
+    }
+
+    static void deleteSegmentsBefore(Path directory, long number) throws IOException {
+        for (long existing : segments(directory)) {
+            if (existing < number) {
+                Files.deleteIfExists(segmentFile(directory, existing));
+            }
+        }
+    }
+
+    // Makes a created or renamed file's directory entry durable; not supported on every platform.
+    static void syncDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot sync directory {}", directory, e);
+        }
+    }
+}
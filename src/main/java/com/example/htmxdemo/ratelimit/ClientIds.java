@@ -0,0 +1,142 @@
+package com.example.htmxdemo.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Tells rate-limited clients apart. Every page render hands a browser without one a random
+ * client id in an HttpOnly cookie, signed with HMAC-SHA256 so clients cannot mint their own.
+ * A request is then keyed by its session if it has one, by its client id otherwise, and only
+ * falls back to its address when it carries no valid id, so visitors behind one NAT or proxy
+ * get a bucket each. Dropping or forging the cookie puts a client back in its address's
+ * shared bucket rather than a fresh one.
+ *
+ * <p>Each new id starts with full buckets, so ids are handed out to one address at a limited
+ * rate: enough for the browsers behind a NAT to arrive together, too few for a script to
+ * fetch a fresh id whenever its buckets run dry. An address over its rate gets no id and
+ * keeps using its shared bucket.
+ */
+class ClientIds implements HandlerInterceptor {
+
+    static final String COOKIE = "client-id";
+
+    private static final int ID_BYTES = 16;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+    private final double issueRate;
+    private final int issueBurst;
+    private final Cache<String, TokenBucket> issued;
+
+    ClientIds(byte[] secret, double issueRate, int issueBurst, long maxAddresses) {
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.issueRate = issueRate;
+        this.issueBurst = issueBurst;
+        this.issued = Caffeine.newBuilder()
+                .maximumSize(maxAddresses)
+                .expireAfterAccess(Duration.ofNanos(Math.max(1_000_000_000L,
+                        (long) (issueBurst / issueRate * 1_000_000_000L))))
+                .build();
+    }
+
+    /** Issues a client id on page renders that arrive without a valid one. */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && HttpMethod.GET.matches(request.getMethod())
+                && clientId(request) == null && mayIssue(request.getRemoteAddr())) {
+            byte[] id = new byte[ID_BYTES];
+            random.nextBytes(id);
+            String value = encode(id) + "." + encode(sign(id));
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, value)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+        return true;
+    }
+
+    private boolean mayIssue(String address) {
+        long now = System.nanoTime();
+        return issued.get(address, key -> new TokenBucket(issueRate, issueBurst, now)).tryAcquire(now) == 0;
+    }
+
+    String client(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            return "s:" + session.getId();
+        }
+        String id = clientId(request);
+        return id != null ? "c:" + id : "a:" + request.getRemoteAddr();
+    }
+
+    private String clientId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName()) && verify(cookie.getValue())) {
+                return cookie.getValue().substring(0, cookie.getValue().indexOf('.'));
+            }
+        }
+        return null;
+    }
+
+    private boolean verify(String value) {
+        int separator = value.indexOf('.');
+        if (separator < 0) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            byte[] id = decoder.decode(value.substring(0, separator));
+            byte[] tag = decoder.decode(value.substring(separator + 1));
+            return id.length == ID_BYTES && MessageDigest.isEqual(sign(id), tag);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] sign(byte[] id) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(id);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static byte[] secret(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.htmxdemo.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers one {@link RateLimitInterceptor} per configured budget, plus the {@link ClientIds}
+ * that hands out the ids they key on. Limits apply only once the application is ready, so the
+ * warm-up's own requests are never turned away.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfiguration implements WebMvcConfigurer {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry registry;
+    private volatile boolean ready;
+
+    public RateLimitConfiguration(RateLimitProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void applicationReady() {
+        ready = true;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        if (!properties.enabled()) {
+            return;
+        }
+        ClientIds clientIds = new ClientIds(ClientIds.secret(properties.clientSecret()),
+                properties.clientIdRate(), properties.clientIdBurst(), properties.maxClients());
+        interceptors.addInterceptor(clientIds);
+        properties.budgets().forEach((name, budget) -> interceptors
+                .addInterceptor(new RateLimitInterceptor(name, budget, properties.maxClients(), clientIds,
+                        () -> ready, registry))
+                .addPathPatterns(budget.paths()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.htmxdemo.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Admits requests to one budget's paths while the client has tokens left and turns the rest
+ * away at once with an empty {@code 429}, instead of letting them queue for a worker thread.
+ * {@code Retry-After} says when the next token is due and {@code HX-Reswap: none} keeps htmx
+ * from touching the page. Clients are told apart by {@link ClientIds}. Rejections are counted
+ * as {@code ratelimit.rejected}, tagged by budget.
+ */
+class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitProperties.Budget budget;
+    private final ClientIds clientIds;
+    private final BooleanSupplier active;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter rejected;
+
+    RateLimitInterceptor(String name, RateLimitProperties.Budget budget, long maxClients, ClientIds clientIds,
+                         BooleanSupplier active, MeterRegistry registry) {
+        this.budget = budget;
+        this.clientIds = clientIds;
+        this.active = active;
+        // An idle bucket refills completely after burst / rate; dropping it then changes nothing.
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(1_000_000_000L,
+                        (long) (budget.burst() / budget.rate() * 1_000_000_000L))))
+                .build();
+        this.rejected = Counter.builder("ratelimit.rejected")
+                .description("Requests turned away because the client exceeded its budget")
+                .tag("budget", name)
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!active.getAsBoolean()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long wait = buckets.get(clientIds.client(request), key -> new TokenBucket(budget.rate(), budget.burst(), now))
+                .tryAcquire(now);
+        if (wait == 0) {
+            return true;
+        }
+        rejected.increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(
+                wait + TimeUnit.SECONDS.toNanos(1) - 1))));
+        response.setHeader("HX-Reswap", "none");
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.htmxdemo.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param enabled       whether requests are rate limited at all
+ * @param maxClients    how many client buckets are tracked per budget; the least recently used
+ *                      are dropped first, which only ever lets their clients in sooner
+ * @param clientSecret  key that signs the client-id cookies; instances behind one load balancer
+ *                      need the same one, and without it a random key is used per start
+ * @param clientIdRate  client ids issued per second to one address once its burst is spent
+ * @param clientIdBurst client ids one address may be issued at once, such as the browsers
+ *                      behind one NAT arriving together
+ * @param budgets       request budgets by name
+ */
+@ConfigurationProperties("ratelimit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maxClients,
+        String clientSecret,
+        @DefaultValue("0.1") double clientIdRate,
+        @DefaultValue("20") int clientIdBurst,
+        @DefaultValue Map<String, Budget> budgets) {
+
+    public RateLimitProperties {
+        if (!(clientIdRate > 0)) {
+            throw new IllegalArgumentException("Client id rate must be positive: " + clientIdRate);
+        }
+    }
+
+    /**
+     * @param paths path patterns sharing the budget, such as {@code /userform/validate/**}
+     * @param rate  sustained requests per second allowed for one client
+     * @param burst requests a client may send at once after being idle
+     */
+    public record Budget(List<String> paths, double rate, @DefaultValue("1") int burst) {
+
+        public Budget {
+            if (paths == null || paths.isEmpty()) {
+                throw new IllegalArgumentException("A rate limit budget needs at least one path");
+            }
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("Rate limit must be positive: " + rate);
+            }
+        }
+    }
+}
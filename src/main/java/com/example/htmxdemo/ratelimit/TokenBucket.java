@@ -0,0 +1,37 @@
+package com.example.htmxdemo.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} tokens and refilled at {@code rate} tokens
+ * per second. The whole state is one {@code long}, the instant at which the bucket would be
+ * full again (the generic cell rate algorithm's theoretical arrival time), so taking a token is
+ * a single compare-and-set and no refill timer is needed.
+ */
+final class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong refilledAt;
+
+    TokenBucket(double rate, int burst, long nowNanos) {
+        this.interval = Math.max(1, (long) (1_000_000_000L / rate));
+        this.tolerance = interval * (Math.max(1, burst) - 1);
+        this.refilledAt = new AtomicLong(nowNanos);
+    }
+
+    /** Takes a token and returns 0, or returns how many nanoseconds until one is available. */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = refilledAt.get();
+            long from = current - nowNanos > 0 ? current : nowNanos;
+            long wait = from - tolerance - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (refilledAt.compareAndSet(current, from + interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.htmxdemo.tasksearch;
+
+import java.util.Arrays;
+
+/**
+ * Typo-tolerant name matching: finds names containing a substring within a small edit
+ * distance of the query (1 edit for queries of 3-5 characters, 2 for longer ones).
+ *
+ * <p>Candidates come from the trigram postings of the {@link TaskIndex}: a name holding a
+ * match with {@code k} edits shares all but at most {@code 3k} of the query's distinct
+ * trigrams, so names below that count are skipped without being looked at. Survivors are
+ * verified with a bounded approximate-substring edit distance, best trigram overlap first,
+ * and ranked by (distance, id). The scan stops at the deadline and reports whatever it has
+ * ranked so far as partial.
+ */
+final class FuzzyMatcher {
+
+    static final int MIN_QUERY_LENGTH = 3;
+    static final int MAX_QUERY_LENGTH = 64;
+
+    private static final int DEADLINE_CHECK_INTERVAL = 64;
+    private static final int[] TIMED_OUT = new int[0];
+
+    private FuzzyMatcher() {
+    }
+
+    record Matches(int[] slots, boolean partial) {
+    }
+
+    static int maxEdits(int queryLength) {
+        return queryLength < MIN_QUERY_LENGTH ? 0 : queryLength <= 5 ? 1 : 2;
+    }
+
+    /** Queries must be between {@link #MIN_QUERY_LENGTH} and {@link #MAX_QUERY_LENGTH} characters. */
+    static Matches search(TaskStore.Snapshot snapshot, String foldedQuery, int limit, long deadlineNanos) {
+        int edits = maxEdits(foldedQuery.length());
+        TopK top = new TopK(limit);
+        Distance distance = new Distance(foldedQuery);
+
+        int indexed = snapshot.index().size();
+        int[] candidates = candidates(snapshot.index(), foldedQuery, edits, deadlineNanos);
+        if (candidates == TIMED_OUT) {
+            return new Matches(new int[0], true);
+        }
+        int scanned = candidates == null ? indexed : candidates.length;
+        int total = scanned + (snapshot.size() - indexed);
+        for (int i = 0; i < total; i++) {
+            if (i % DEADLINE_CHECK_INTERVAL == 0 && i > 0 && System.nanoTime() - deadlineNanos > 0) {
+                return new Matches(top.drainSorted(), true);
+            }
+            int slot = i >= scanned ? indexed + (i - scanned) : candidates == null ? i : candidates[i];
+            if (!snapshot.isLive(slot)) {
+                continue;
+            }
+            int d = distance.within(snapshot.foldedName(slot), edits);
+            if (d <= edits) {
+                top.offer(d, snapshot.id(slot), slot);
+            }
+        }
+        return new Matches(top.drainSorted(), false);
+    }
+
+    /**
+     * Returns the indexed positions sharing enough trigrams with the query, most shared first,
+     * or {@code null} when the query is too short for the filter to exclude anything.
+     */
+    private static int[] candidates(TaskIndex index, String foldedQuery, int edits, long deadlineNanos) {
+        long[] grams = distinctTrigrams(foldedQuery);
+        int required = grams.length - 3 * edits;
+        if (required < 1) {
+            return null;
+        }
+
+        int size = index.size();
+        byte[] shared = new byte[size];
+        for (long gram : grams) {
+            for (int pos : index.postings(gram)) {
+                shared[pos]++;
+            }
+            if (System.nanoTime() - deadlineNanos > 0) {
+                return TIMED_OUT;
+            }
+        }
+        // Counting sort by shared trigrams, descending, keeping positions ascending within a count.
+        int[] starts = new int[grams.length + 2];
+        for (int pos = 0; pos < size; pos++) {
+            if (shared[pos] >= required) {
+                starts[grams.length - shared[pos] + 1]++;
+            }
+        }
+        for (int c = 1; c < starts.length; c++) {
+            starts[c] += starts[c - 1];
+        }
+        int[] ordered = new int[starts[starts.length - 1]];
+        for (int pos = 0; pos < size; pos++) {
+            if (shared[pos] >= required) {
+                ordered[starts[grams.length - shared[pos]]++] = pos;
+            }
+        }
+        return ordered;
+    }
+
+    private static long[] distinctTrigrams(String text) {
+        int count = Math.max(0, text.length() - TaskIndex.MAX_GRAM + 1);
+        long[] grams = new long[count];
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            long gram = TaskIndex.gram(text, i, TaskIndex.MAX_GRAM);
+            boolean seen = false;
+            for (int j = 0; j < distinct && !seen; j++) {
+                seen = grams[j] == gram;
+            }
+            if (!seen) {
+                grams[distinct++] = gram;
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Smallest edit distance between the query and any substring of a text (Sellers'
+     * algorithm), stopping early on an exact occurrence. Reuses its rows between texts.
+     */
+    static final class Distance {
+        private final String query;
+        private final int[] previous;
+        private final int[] current;
+
+        Distance(String query) {
+            this.query = query;
+            this.previous = new int[query.length() + 1];
+            this.current = new int[query.length() + 1];
+        }
+
+        /** Returns the distance, or {@code limit + 1} if it is larger than {@code limit}. */
+        int within(String text, int limit) {
+            int m = query.length();
+            int[] prev = previous;
+            int[] cur = current;
+            for (int i = 0; i <= m; i++) {
+                prev[i] = i;
+            }
+            int best = prev[m];
+            for (int j = 1; j <= text.length(); j++) {
+                char c = text.charAt(j - 1);
+                cur[0] = 0;
+                for (int i = 1; i <= m; i++) {
+                    int substitute = prev[i - 1] + (query.charAt(i - 1) == c ? 0 : 1);
+                    cur[i] = Math.min(substitute, Math.min(prev[i], cur[i - 1]) + 1);
+                }
+                best = Math.min(best, cur[m]);
+                if (best == 0) {
+                    return 0;
+                }
+                int[] swap = prev;
+                prev = cur;
+                cur = swap;
+            }
+            return Math.min(best, limit + 1);
+        }
+    }
+}
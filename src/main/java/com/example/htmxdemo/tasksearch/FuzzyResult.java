@@ -0,0 +1,10 @@
+package com.example.htmxdemo.tasksearch;
+
+import java.util.List;
+
+/**
+ * @param tasks   the closest matches found, best first
+ * @param partial whether the time budget ran out before every candidate was checked
+ */
+public record FuzzyResult(List<Task> tasks, boolean partial) {
+}
@@ -0,0 +1,35 @@
+package com.example.htmxdemo.tasksearch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the newest request sequence number seen from each search client, so that work
+ * for a request the same client has already replaced can be skipped. This is the server-side
+ * half of {@code hx-sync="this:replace"}: htmx aborts the stale request in the browser, the
+ * tracker stops the server from finishing it. Idle clients are forgotten after a minute.
+ */
+@Component
+public class LatestRequestTracker {
+
+    private final Cache<String, AtomicLong> latestByClient = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(1))
+            .maximumSize(100_000)
+            .build();
+
+    /** Records {@code sequence} and returns whether it is the newest request from the client. */
+    public boolean begin(String client, long sequence) {
+        AtomicLong latest = latestByClient.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        return latest.accumulateAndGet(sequence, Math::max) == sequence;
+    }
+
+    /** Returns whether no newer request from the client has arrived since {@code sequence}. */
+    public boolean isCurrent(String client, long sequence) {
+        AtomicLong latest = latestByClient.getIfPresent(client);
+        return latest == null || latest.get() <= sequence;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.htmxdemo.tasksearch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of recent match sets keyed by folded query, for answering autocomplete
+ * keystrokes incrementally. A query that extends a cached one can only match a subset of its
+ * names, so it is answered by re-checking the cached slots instead of searching the corpus:
+ * typing "datab" after "data" costs work proportional to the matches for "data".
+ *
+ * <p>Slots are only meaningful within one snapshot, so each entry remembers the version it was
+ * computed for and is ignored once the store has moved on. Searches restricted to a range of
+ * slots, as run by each shard of a parallel search, are cached per range. Queries of up to
+ * {@link TaskIndex#MAX_GRAM} characters are never cached; the index answers them with a single
+ * posting list. The cache is bounded by the total number of slots held, and sets larger than a
+ * sixteenth of that are not kept at all.
+ */
+final class RefinementCache {
+
+    private static final int MIN_QUERY_LENGTH = TaskIndex.MAX_GRAM + 1;
+
+    private final Cache<Key, Entry> entries;
+    private final long maxEntrySlots;
+
+    RefinementCache(long maxSlots) {
+        this.entries = maxSlots <= 0 ? null : Caffeine.newBuilder()
+                .maximumWeight(maxSlots)
+                .weigher((Key key, Entry entry) -> entry.slots.length + 1)
+                .build();
+        this.maxEntrySlots = maxSlots / 16;
+    }
+
+    /** Returns the ascending live slots whose folded name contains {@code foldedQuery}; must not be modified. */
+    int[] search(TaskStore.Snapshot snapshot, String foldedQuery) {
+        return search(snapshot, foldedQuery, 0, snapshot.size());
+    }
+
+    /** Like {@link #search(TaskStore.Snapshot, String)}, but only returns slots in {@code [from, to)}. */
+    int[] search(TaskStore.Snapshot snapshot, String foldedQuery, int from, int to) {
+        if (entries == null || foldedQuery.length() < MIN_QUERY_LENGTH) {
+            return snapshot.search(foldedQuery, from, to);
+        }
+        for (int length = foldedQuery.length(); length >= MIN_QUERY_LENGTH; length--) {
+            Entry cached = entries.getIfPresent(new Key(foldedQuery.substring(0, length), from, to));
+            if (cached == null || cached.version != snapshot.version()) {
+                continue;
+            }
+            if (length == foldedQuery.length()) {
+                return cached.slots;
+            }
+            return remember(new Key(foldedQuery, from, to), snapshot, refine(snapshot, cached.slots, foldedQuery));
+        }
+        return remember(new Key(foldedQuery, from, to), snapshot, snapshot.search(foldedQuery, from, to));
+    }
+
+    void invalidateAll() {
+        if (entries != null) {
+            entries.invalidateAll();
+        }
+    }
+
+    long size() {
+        return entries == null ? 0 : entries.estimatedSize();
+    }
+
+    private int[] remember(Key key, TaskStore.Snapshot snapshot, int[] slots) {
+        if (slots.length <= maxEntrySlots) {
+            entries.put(key, new Entry(snapshot.version(), slots));
+        }
+        return slots;
+    }
+
+    private static int[] refine(TaskStore.Snapshot snapshot, int[] candidates, String foldedQuery) {
+        int[] slots = new int[candidates.length];
+        int count = 0;
+        for (int slot : candidates) {
+            if (snapshot.foldedName(slot).contains(foldedQuery)) {
+                slots[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(slots, count);
+    }
+
+    private record Key(String foldedQuery, int from, int to) {
+    }
+
+    private record Entry(long version, int[] slots) {
+    }
+}
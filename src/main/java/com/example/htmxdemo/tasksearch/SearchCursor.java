@@ -0,0 +1,33 @@
+package com.example.htmxdemo.tasksearch;
+
+/**
+ * Keyset position in ranked results: the rank tier and id of the last task already shown.
+ * Serialised as {@code "tier:id"} so it can travel in an htmx request.
+ */
+public record SearchCursor(int tier, long id) {
+
+    public static SearchCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed search cursor: " + value);
+        }
+        try {
+            return new SearchCursor(Integer.parseInt(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed search cursor: " + value, e);
+        }
+    }
+
+    boolean precedes(int tier, long id) {
+        return this.tier < tier || (this.tier == tier && this.id < id);
+    }
+
+    @Override
+    public String toString() {
+        return tier + ":" + id;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.htmxdemo.tasksearch;
+
+/**
+ * Immutable map from {@code long} keys to non-negative {@code int} values, split by key hash into
+ * segments that are each a {@link LongIntHashMap}. {@link #with} and {@link #without} copy only
+ * the segment they touch and the array of segment references, and share the rest with the
+ * original. The segment count is kept near the square root of the size, so a write costs
+ * O(&radic;n) rather than a copy of the whole map. Doubling the segment count, once the size
+ * has quadrupled, is the only O(n) step.
+ */
+final class SegmentedLongIntMap {
+
+    static final int MISSING = LongIntHashMap.MISSING;
+
+    private final LongIntHashMap[] segments;
+    private final int shift;
+    private final int size;
+
+    private SegmentedLongIntMap(LongIntHashMap[] segments, int size) {
+        this.segments = segments;
+        this.shift = 64 - Integer.numberOfTrailingZeros(segments.length);
+        this.size = size;
+    }
+
+    static SegmentedLongIntMap of(LongIntHashMap map) {
+        return distribute(map::forEach, segmentsFor(map.size()), map.size());
+    }
+
+    int size() {
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    int get(long key) {
+        return segments[segment(key)].get(key);
+    }
+
+    SegmentedLongIntMap with(long key, int value) {
+        int segment = segment(key);
+        LongIntHashMap copy = segments[segment].copy();
+        boolean added = copy.get(key) == MISSING;
+        copy.put(key, value);
+        int newSize = added ? size + 1 : size;
+        if (newSize > 2L * segments.length * segments.length) {
+            SegmentedLongIntMap replaced = replace(segment, copy, newSize);
+            return distribute(replaced::forEach, segments.length * 2, newSize);
+        }
+        return replace(segment, copy, newSize);
+    }
+
+    SegmentedLongIntMap without(long key) {
+        int segment = segment(key);
+        if (segments[segment].get(key) == MISSING) {
+            return this;
+        }
+        LongIntHashMap copy = segments[segment].copy();
+        copy.remove(key);
+        return replace(segment, copy, size - 1);
+    }
+
+    void forEach(LongIntHashMap.EntryConsumer consumer) {
+        for (LongIntHashMap segment : segments) {
+            segment.forEach(consumer);
+        }
+    }
+
+    private SegmentedLongIntMap replace(int segment, LongIntHashMap map, int newSize) {
+        LongIntHashMap[] copy = segments.clone();
+        copy[segment] = map;
+        return new SegmentedLongIntMap(copy, newSize);
+    }
+
+    // Uses the high bits of the mixed key, so keys within a segment still spread over its buckets.
+    private int segment(long key) {
+        return shift == 64 ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static int segmentsFor(int size) {
+        int root = (int) Math.sqrt(size);
+        return root <= 1 ? 1 : Integer.highestOneBit(root);
+    }
+
+    private static SegmentedLongIntMap distribute(java.util.function.Consumer<LongIntHashMap.EntryConsumer> entries,
+                                                  int count, int size) {
+        LongIntHashMap[] segments = new LongIntHashMap[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new LongIntHashMap(size / count + 1);
+        }
+        SegmentedLongIntMap map = new SegmentedLongIntMap(segments, size);
+        entries.accept((key, value) -> segments[map.segment(key)].put(key, value));
+        return map;
+    }
+}
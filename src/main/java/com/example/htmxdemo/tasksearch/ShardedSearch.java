@@ -0,0 +1,93 @@
+package com.example.htmxdemo.tasksearch;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scatter-gather search over a dedicated fork/join pool. A snapshot's slots are cut into one
+ * contiguous range per worker, and each shard finds the matches in its own range and ranks them
+ * into its own {@link TopK}. The per-shard winners are merged pairwise on the way back up, so
+ * the caller sees one top-k list in rank order. Snapshots with fewer slots than the threshold
+ * are searched on the calling thread, where forking would cost more than it saves. The pool is
+ * owned by this object and shut down by {@link #close()}; a single shard needs no pool.
+ */
+final class ShardedSearch implements AutoCloseable {
+
+    static final int DEFAULT_THRESHOLD = 20_000;
+
+    @FunctionalInterface
+    interface Ranker {
+        /** Offers the matches among slots {@code [from, to)} to {@code top}. */
+        void rank(int from, int to, TopK top);
+    }
+
+    private final int shards;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    /** A non-positive {@code shards} uses one shard per available processor. */
+    ShardedSearch(int shards, int threshold) {
+        this.shards = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.threshold = Math.max(threshold, this.shards);
+        this.pool = this.shards == 1 ? null : new ForkJoinPool(this.shards, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("task-search-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    int shards() {
+        return shards;
+    }
+
+    /** Returns the best {@code count} matches that {@code ranker} offers from {@code total} slots, best first. */
+    int[] top(int total, int count, Ranker ranker) {
+        if (pool == null || total < threshold) {
+            TopK top = new TopK(count);
+            ranker.rank(0, total, top);
+            return top.drainSorted();
+        }
+        return pool.invoke(new Shard(ranker, count, 0, total, shards)).drainSorted();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static final class Shard extends RecursiveTask<TopK> {
+        private final Ranker ranker;
+        private final int count;
+        private final int from;
+        private final int to;
+        private final int shards;
+
+        Shard(Ranker ranker, int count, int from, int to, int shards) {
+            this.ranker = ranker;
+            this.count = count;
+            this.from = from;
+            this.to = to;
+            this.shards = shards;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (shards == 1) {
+                TopK top = new TopK(count);
+                ranker.rank(from, to, top);
+                return top;
+            }
+            int half = shards / 2;
+            int middle = from + (int) ((long) (to - from) * half / shards);
+            Shard left = new Shard(ranker, count, from, middle, half);
+            left.fork();
+            TopK right = new Shard(ranker, count, middle, to, shards - half).compute();
+            TopK top = left.join();
+            top.offerAll(right);
+            return top;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.htmxdemo.tasksearch;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves tasks from the file named by {@code tasks.file} instead of the bundled classpath
+ * resource, and reloads it whenever the file changes. Reloads stream the file on a
+ * background thread and swap the result in atomically; searches keep using the previous
+ * data until then, and keep it for good if the new file fails to load.
+ */
+@Component
+@ConditionalOnProperty("tasks.file")
+public class TaskFileWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskFileWatcher.class);
+
+    private final TaskSearchService service;
+    private final Path file;
+    private final Duration quietPeriod;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public TaskFileWatcher(TaskSearchService service,
+                           @Value("${tasks.file}") Path file,
+                           @Value("${tasks.reload-quiet-period:500ms}") Duration quietPeriod) {
+        this.service = service;
+        this.file = file.toAbsolutePath();
+        this.quietPeriod = quietPeriod;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        service.loadTasks(file);
+        watchService = FileSystems.getDefault().newWatchService();
+        file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcher = new Thread(this::watch, "task-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (touchesFile(watchService.take())) {
+                    // Editors and copy tools write in several steps; wait until the file settles.
+                    boolean settled = false;
+                    while (!settled) {
+                        settled = !touchesFile(watchService.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS));
+                    }
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching {}", file);
+        }
+    }
+
+    private boolean touchesFile(WatchKey key) {
+        if (key == null) {
+            return false;
+        }
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            touched |= event.context() instanceof Path changed && file.getFileName().equals(changed);
+        }
+        key.reset();
+        return touched;
+    }
+
+    private void reload() {
+        try {
+            long started = System.nanoTime();
+            service.loadTasks(file);
+            log.info("Reloaded {} tasks from {} in {} ms", service.taskCount(), file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (Exception e) {
+            log.warn("Keeping previous tasks; failed to reload {}", file, e);
+        }
+    }
+}
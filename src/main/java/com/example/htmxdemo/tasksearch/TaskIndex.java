@@ -0,0 +1,164 @@
+package com.example.htmxdemo.tasksearch;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inverted index over case-folded task names. Every 1-, 2- and 3-character gram of a
+ * name maps to the sorted positions of the names containing it. Queries of up to three
+ * characters are answered straight from a posting list; longer queries intersect the
+ * postings of their trigrams and confirm the survivors with {@link String#contains}, so
+ * results are identical to a linear {@code name.toLowerCase().contains(query)} scan.
+ */
+final class TaskIndex {
+
+    static final int MAX_GRAM = 3;
+
+    private static final int[] NONE = new int[0];
+
+    private final String[] foldedNames;
+    private final int size;
+    private final long[] grams;
+    private final int[][] postings;
+
+    private TaskIndex(String[] foldedNames, int size, long[] grams, int[][] postings) {
+        this.foldedNames = foldedNames;
+        this.size = size;
+        this.grams = grams;
+        this.postings = postings;
+    }
+
+    static TaskIndex build(String[] foldedNames, int size) {
+        Map<Long, IntList> lists = new HashMap<>();
+        for (int pos = 0; pos < size; pos++) {
+            String name = foldedNames[pos];
+            for (int n = 1; n <= MAX_GRAM; n++) {
+                for (int i = 0; i + n <= name.length(); i++) {
+                    lists.computeIfAbsent(gram(name, i, n), k -> new IntList()).addDistinct(pos);
+                }
+            }
+        }
+
+        long[] grams = new long[lists.size()];
+        int i = 0;
+        for (Long gram : lists.keySet()) {
+            grams[i++] = gram;
+        }
+        Arrays.sort(grams);
+        int[][] postings = new int[grams.length][];
+        for (i = 0; i < grams.length; i++) {
+            postings[i] = lists.get(grams[i]).toArray();
+        }
+        return new TaskIndex(foldedNames, size, grams, postings);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ascending positions of names containing {@code foldedQuery}. The
+     * returned array may be shared with the index and must not be modified.
+     */
+    int[] search(String foldedQuery) {
+        return search(foldedQuery, 0, size);
+    }
+
+    /** Like {@link #search(String)}, but only returns positions in {@code [from, to)}. */
+    int[] search(String foldedQuery, int from, int to) {
+        int length = foldedQuery.length();
+        if (length == 0 || from >= to) {
+            return NONE;
+        }
+        if (length <= MAX_GRAM) {
+            return range(postings(gram(foldedQuery, 0, length)), from, to);
+        }
+
+        int[][] lists = new int[length - MAX_GRAM + 1][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = range(postings(gram(foldedQuery, i, MAX_GRAM)), from, to);
+            if (lists[i].length == 0) {
+                return NONE;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+
+        int[] candidates = lists[0].clone();
+        int count = candidates.length;
+        for (int l = 1; l < lists.length && count > 0; l++) {
+            count = intersect(candidates, count, lists[l]);
+        }
+
+        int matches = 0;
+        for (int c = 0; c < count; c++) {
+            int pos = candidates[c];
+            if (foldedNames[pos].contains(foldedQuery)) {
+                candidates[matches++] = pos;
+            }
+        }
+        return matches == candidates.length ? candidates : Arrays.copyOf(candidates, matches);
+    }
+
+    /** Returns the ascending positions of names containing {@code gram}; must not be modified. */
+    int[] postings(long gram) {
+        int slot = Arrays.binarySearch(grams, gram);
+        return slot >= 0 ? postings[slot] : NONE;
+    }
+
+    // Returns the entries of an ascending list that lie in [from, to), sharing the list if all do.
+    private static int[] range(int[] list, int from, int to) {
+        int start = list.length == 0 || list[0] >= from ? 0 : insertionPoint(list, from);
+        int end = list.length == 0 || list[list.length - 1] < to ? list.length : insertionPoint(list, to);
+        return start == 0 && end == list.length ? list : Arrays.copyOfRange(list, start, end);
+    }
+
+    private static int insertionPoint(int[] list, int value) {
+        int found = Arrays.binarySearch(list, value);
+        return found >= 0 ? found : -found - 1;
+    }
+
+    // Keeps the entries of candidates[0, count) that also occur in other, in place.
+    private static int intersect(int[] candidates, int count, int[] other) {
+        int kept = 0;
+        int from = 0;
+        for (int c = 0; c < count && from < other.length; c++) {
+            int found = Arrays.binarySearch(other, from, other.length, candidates[c]);
+            if (found >= 0) {
+                candidates[kept++] = candidates[c];
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return kept;
+    }
+
+    static long gram(CharSequence text, int start, int n) {
+        long key = (long) n << 48;
+        for (int i = 0; i < n; i++) {
+            key |= (long) text.charAt(start + i) << (16 * (n - 1 - i));
+        }
+        return key;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.htmxdemo.tasksearch;
+
+/**
+ * Makes task mutations durable. {@link TaskSearchService} applies each mutation and enqueues
+ * it while holding one lock, so the journal sees mutations in the order they took effect, then
+ * waits for durability outside the lock so that concurrent writers can share a commit.
+ */
+public interface TaskJournal {
+
+    TaskJournal NONE = new TaskJournal() {
+        @Override
+        public long put(Task task) {
+            return 0;
+        }
+
+        @Override
+        public long remove(long id) {
+            return 0;
+        }
+
+        @Override
+        public long replacedAll() {
+            return 0;
+        }
+
+        @Override
+        public void awaitDurable(long ticket) {
+        }
+    };
+
+    /** Enqueues an added or updated task and returns a ticket for {@link #awaitDurable}. */
+    long put(Task task);
+
+    long remove(long id);
+
+    /** Records that every task was replaced; the journal reads the new set back from the service. */
+    long replacedAll();
+
+    void awaitDurable(long ticket);
+}
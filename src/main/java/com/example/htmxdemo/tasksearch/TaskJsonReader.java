@@ -0,0 +1,72 @@
+package com.example.htmxdemo.tasksearch;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams a JSON array of tasks token by token into a {@link TaskStore.Builder}. Only the
+ * current task's fields are held in memory, so files far larger than the heap's spare room
+ * load without buffering the document or materialising {@link Task} objects.
+ */
+final class TaskJsonReader {
+
+    private final JsonFactory jsonFactory;
+
+    TaskJsonReader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    TaskStore.Builder read(InputStream input) throws IOException {
+        TaskStore.Builder builder = new TaskStore.Builder(1024);
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of tasks at " + parser.currentLocation());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                readTask(parser, builder);
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Expected a task object at " + parser.currentLocation());
+            }
+        }
+        return builder;
+    }
+
+    private static void readTask(JsonParser parser, TaskStore.Builder builder) throws IOException {
+        Long id = null;
+        String name = null;
+        String description = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> id = value == JsonToken.VALUE_NULL ? null : readId(parser, value);
+                case "name" -> name = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                case "description" -> description = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        if (id == null || name == null) {
+            throw new IOException("Task without id or name ending at " + location(parser));
+        }
+        builder.add(id, name, description);
+    }
+
+    // getValueAsLong would read any other value as 0, so several bad rows would share that id.
+    private static long readId(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT) {
+            throw new IOException("Task id must be an integer, found " + parser.getText() + " at " + location(parser));
+        }
+        return parser.getLongValue();
+    }
+
+    private static String location(JsonParser parser) {
+        JsonLocation location = parser.currentLocation();
+        return "line " + location.getLineNr() + ", column " + location.getColumnNr();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.htmxdemo.tasksearch;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results. {@code nextCursor} is {@code null} on the last page.
+ */
+public record TaskPage(List<Task> tasks, SearchCursor nextCursor) {
+}
@@ -1,37 +1,103 @@
 package com.example.htmxdemo.tasksearch;
 
+import com.example.htmxdemo.fragment.ConditionalGet;
+import com.example.htmxdemo.fragment.HtmxResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/tasksearch")
 public class TaskSearchController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TaskSearchService service;
+    private final LatestRequestTracker latestRequests;
 
-    public TaskSearchController(TaskSearchService service) {
+    public TaskSearchController(TaskSearchService service, LatestRequestTracker latestRequests) {
         this.service = service;
+        this.latestRequests = latestRequests;
     }
 
+    // The page is rendered without task data; only a restart can change it.
     @GetMapping
-    public String index(Model model) {
+    public String index(WebRequest request) {
+        if (ConditionalGet.notModified(request, "page", -1)) {
+            return null;
+        }
         return "tasksearch/tasksearch";
     }
 
     @PostMapping("/search")
-    public String search(@RequestParam(defaultValue = "") String query, Model model) {
+    public String search(@RequestParam(defaultValue = "") String query,
+                         @RequestParam(required = false) String cursor,
+                         @RequestParam(defaultValue = "20") int limit,
+                         @RequestHeader(value = "X-Search-Client", required = false) String client,
+                         @RequestHeader(value = "X-Search-Seq", required = false) Long sequence,
+                         Model model,
+                         HttpServletResponse response) {
+        boolean tracked = client != null && sequence != null;
+        if (tracked && !latestRequests.begin(client, sequence)) {
+            return superseded(response);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TaskPage page = service.searchPage(query, parseCursor(cursor), pageSize);
+        // Nothing contains the query verbatim: offer close matches instead of an empty list.
+        FuzzyResult fuzzy = cursor == null && page.tasks().isEmpty() ? service.fuzzySearch(query, pageSize) : null;
+        if (tracked && !latestRequests.isCurrent(client, sequence)) {
+            return superseded(response);
+        }
+
         model.addAttribute("query", query);
-        model.addAttribute("tasks", service.search(query));
-        return "tasksearch/tasksearch :: task-dropdown";
+        if (fuzzy != null && !fuzzy.tasks().isEmpty()) {
+            model.addAttribute("tasks", fuzzy.tasks());
+            model.addAttribute("fuzzy", true);
+            model.addAttribute("partial", fuzzy.partial());
+        } else {
+            model.addAttribute("tasks", page.tasks());
+            model.addAttribute("nextCursor", page.nextCursor());
+        }
+        return cursor == null ? "tasksearch/tasksearch :: task-dropdown" : "tasksearch/tasksearch :: task-page";
     }
 
+    /** Shows the task and closes the dropdown in the same response. */
     @GetMapping("/{id}")
-    public String taskDetail(@PathVariable Long id, Model model) {
-        service.getTaskById(id).ifPresent(task -> model.addAttribute("task", task));
-        return "tasksearch/tasksearch :: task-detail";
+    public HtmxResponse taskDetail(@PathVariable Long id, WebRequest request, Model model) {
+        if (ConditionalGet.notModified(request, "t" + service.dataVersion(), service.lastModified())) {
+            return null;
+        }
+        Optional<Task> task = service.getTaskById(id);
+        task.ifPresent(t -> model.addAttribute("task", t));
+        HtmxResponse.Builder response = HtmxResponse.view("tasksearch/tasksearch :: task-detail")
+                .oob("tasksearch/tasksearch :: task-dropdown");
+        task.ifPresent(t -> response.trigger("taskSelected", Map.of("id", t.id(), "name", t.name())));
+        return response.build();
+    }
+
+    // A newer keystroke from the same client is already being served; skip rendering this one.
+    private static String superseded(HttpServletResponse response) {
+        response.setStatus(HttpStatus.NO_CONTENT.value());
+        response.setHeader("HX-Reswap", "none");
+        return null;
+    }
+
+    private static SearchCursor parseCursor(String cursor) {
+        try {
+            return SearchCursor.parse(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 }
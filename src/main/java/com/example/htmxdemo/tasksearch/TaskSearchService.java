@@ -1,30 +1,109 @@
 package com.example.htmxdemo.tasksearch;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class TaskSearchService {
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private List<Task> tasks;
+    private final TaskJsonReader taskReader = new TaskJsonReader(new ObjectMapper().getFactory());
+    private final TaskStore store = new TaskStore();
+    private final SingleFlight<PageRequest, TaskPage> pageSearches = new SingleFlight<>();
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration fuzzyBudget;
+    private final RefinementCache refinements;
+    private final ShardedSearch shards;
+    private volatile long lastModified = System.currentTimeMillis();
+    private final Object mutationLock = new Object();
+    private volatile TaskJournal journal = TaskJournal.NONE;
+
+    public TaskSearchService(ApplicationEventPublisher eventPublisher) {
+        this(eventPublisher, Duration.ofMillis(25));
+    }
+
+    public TaskSearchService(ApplicationEventPublisher eventPublisher, Duration fuzzyBudget) {
+        this(eventPublisher, fuzzyBudget, 1_000_000);
+    }
+
+    /** Searches on the calling thread only, so there is no pool to {@link #stop()}. */
+    public TaskSearchService(ApplicationEventPublisher eventPublisher, Duration fuzzyBudget, long searchCacheSlots) {
+        this(eventPublisher, fuzzyBudget, searchCacheSlots, 1, ShardedSearch.DEFAULT_THRESHOLD);
+    }
+
+    @Autowired
+    public TaskSearchService(ApplicationEventPublisher eventPublisher,
+                             @Value("${tasks.fuzzy.budget:25ms}") Duration fuzzyBudget,
+                             @Value("${tasks.search-cache.max-slots:1000000}") long searchCacheSlots,
+                             @Value("${tasks.search.shards:0}") int searchShards,
+                             @Value("${tasks.search.parallel-threshold:20000}") int parallelThreshold) {
+        this.eventPublisher = eventPublisher;
+        this.fuzzyBudget = fuzzyBudget;
+        this.refinements = new RefinementCache(searchCacheSlots);
+        this.shards = new ShardedSearch(searchShards, parallelThreshold);
+    }
 
     @jakarta.annotation.PostConstruct
     public void loadTasks() {
-        try {
-            InputStream inputStream = getClass().getResourceAsStream("/tasks.json");
-            tasks = objectMapper.readValue(inputStream, new TypeReference<List<Task>>() {});
+        try (InputStream inputStream = getClass().getResourceAsStream("/tasks.json")) {
+            store.replaceAll(taskReader.read(inputStream));
         } catch (Exception e) {
             throw new RuntimeException("Failed to load tasks from JSON", e);
         }
     }
 
+    @jakarta.annotation.PreDestroy
+    public void stop() {
+        shards.close();
+    }
+
+    public void loadTasks(Path file) throws IOException {
+        TaskStore.Builder tasks;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            tasks = taskReader.read(inputStream);
+        }
+        long ticket;
+        synchronized (mutationLock) {
+            store.replaceAll(tasks);
+            ticket = journal.replacedAll();
+        }
+        journal.awaitDurable(ticket);
+        tasksChanged();
+    }
+
+    /** Makes every later mutation durable through {@code journal} before it returns. */
+    public void attach(TaskJournal journal) {
+        this.journal = journal;
+    }
+
+    /** Changes whenever any task is added, changed or removed. */
+    public long dataVersion() {
+        return store.version();
+    }
+
+    /** When task data last changed, in epoch milliseconds. */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public int taskCount() {
+        return store.size();
+    }
+
     public List<Task> getAllTasks() {
-        return tasks;
+        return store.all();
     }
 
     public List<Task> search(String query) {
@@ -32,15 +111,149 @@ public class TaskSearchService {
             return getAllTasks();
         }
 
-        String lowerQuery = query.toLowerCase();
-        return tasks.stream()
-                .filter(task -> task.name().toLowerCase().contains(lowerQuery))
-                .toList();
+        TaskStore.Snapshot snapshot = store.snapshot();
+        int[] slots = refinements.search(snapshot, query.toLowerCase());
+        List<Task> results = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            results.add(snapshot.task(slot));
+        }
+        return results;
+    }
+
+    public TaskPage searchPage(String query, SearchCursor after, int limit) {
+        boolean all = query == null || query.trim().isEmpty();
+        String foldedQuery = all ? "" : query.toLowerCase();
+        return pageSearches.execute(new PageRequest(all, foldedQuery, after, limit),
+                () -> computePage(all, foldedQuery, after, limit));
+    }
+
+    private TaskPage computePage(boolean all, String foldedQuery, SearchCursor after, int limit) {
+        TaskStore.Snapshot snapshot = store.snapshot();
+        int[] slots = all
+                ? pageInIdOrder(snapshot, after, limit + 1)
+                : topMatches(snapshot, foldedQuery, after, limit + 1);
+
+        int count = Math.min(slots.length, limit);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(snapshot.task(slots[i]));
+        }
+        SearchCursor next = null;
+        if (slots.length > limit && count > 0) {
+            int last = slots[count - 1];
+            next = new SearchCursor(TopK.tier(snapshot.foldedName(last), foldedQuery), snapshot.id(last));
+        }
+        return new TaskPage(tasks, next);
+    }
+
+    private int[] topMatches(TaskStore.Snapshot snapshot, String foldedQuery, SearchCursor after, int count) {
+        return shards.top(snapshot.size(), count, (from, to, top) -> {
+            for (int slot : refinements.search(snapshot, foldedQuery, from, to)) {
+                int tier = TopK.tier(snapshot.foldedName(slot), foldedQuery);
+                long id = snapshot.id(slot);
+                if (after == null || after.precedes(tier, id)) {
+                    top.offer(tier, id, slot);
+                }
+            }
+        });
+    }
+
+    // Without a query every task ranks equally, so pages walk the id order directly.
+    private static int[] pageInIdOrder(TaskStore.Snapshot snapshot, SearchCursor after, int count) {
+        int[] order = snapshot.slotsInIdOrder();
+        int from = 0;
+        if (after != null) {
+            int low = 0;
+            int high = order.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (after.precedes(TopK.PREFIX, snapshot.id(order[mid]))) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            from = low;
+        }
+        return Arrays.copyOfRange(order, from, Math.min(order.length, from + count));
+    }
+
+    /**
+     * Returns up to {@code limit} tasks whose names nearly contain the query, closest first.
+     * The search stops after the configured budget; the result then says it is partial.
+     * Queries too short to tolerate a typo, or unreasonably long, find nothing.
+     */
+    public FuzzyResult fuzzySearch(String query, int limit) {
+        String foldedQuery = query == null ? "" : query.trim().toLowerCase();
+        if (foldedQuery.length() < FuzzyMatcher.MIN_QUERY_LENGTH || foldedQuery.length() > FuzzyMatcher.MAX_QUERY_LENGTH) {
+            return new FuzzyResult(List.of(), false);
+        }
+        TaskStore.Snapshot snapshot = store.snapshot();
+        FuzzyMatcher.Matches matches = FuzzyMatcher.search(snapshot, foldedQuery, limit,
+                System.nanoTime() + fuzzyBudget.toNanos());
+        List<Task> tasks = new ArrayList<>(matches.slots().length);
+        for (int slot : matches.slots()) {
+            tasks.add(snapshot.task(slot));
+        }
+        return new FuzzyResult(tasks, matches.partial());
     }
 
     public Optional<Task> getTaskById(Long id) {
-        return tasks.stream()
-                .filter(task -> task.id().equals(id))
-                .findFirst();
+        return id == null ? Optional.empty() : store.get(id);
+    }
+
+    public void replaceAllTasks(Collection<Task> tasks) {
+        long ticket;
+        synchronized (mutationLock) {
+            store.replaceAll(tasks);
+            ticket = journal.replacedAll();
+        }
+        journal.awaitDurable(ticket);
+        tasksChanged();
+    }
+
+    public void addTask(Task task) {
+        long ticket;
+        synchronized (mutationLock) {
+            store.add(task);
+            ticket = journal.put(task);
+        }
+        journal.awaitDurable(ticket);
+        tasksChanged();
+    }
+
+    public boolean updateTask(Task task) {
+        long ticket;
+        synchronized (mutationLock) {
+            if (!store.update(task)) {
+                return false;
+            }
+            ticket = journal.put(task);
+        }
+        journal.awaitDurable(ticket);
+        tasksChanged();
+        return true;
+    }
+
+    public boolean removeTask(long id) {
+        long ticket;
+        synchronized (mutationLock) {
+            if (!store.remove(id)) {
+                return false;
+            }
+            ticket = journal.remove(id);
+        }
+        journal.awaitDurable(ticket);
+        tasksChanged();
+        return true;
+    }
+
+    private void tasksChanged() {
+        lastModified = System.currentTimeMillis();
+        refinements.invalidateAll();
+        eventPublisher.publishEvent(new TasksChangedEvent(store.version()));
+    }
+
+    private record PageRequest(boolean all, String foldedQuery, SearchCursor after, int limit) {
     }
 }
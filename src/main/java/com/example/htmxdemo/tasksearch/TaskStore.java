@@ -0,0 +1,439 @@
+package com.example.htmxdemo.tasksearch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Columnar, id-addressed task storage. Rows live in parallel arrays (ids, names, case-folded
+ * names and a UTF-8 description blob) and are located through a primitive
+ * {@link SegmentedLongIntMap}, so no {@link Task} or boxed id is kept per row.
+ *
+ * <p>Readers work on an immutable {@link Snapshot} obtained from a volatile field and never
+ * lock. Writers are serialised: a mutation appends a row past the published size (or
+ * grows the arrays), copies the one id-map segment it touches, and publishes a new snapshot.
+ * Updated rows are appended and the old slot becomes dead. Once dead slots pass a quarter of
+ * the live rows, the live rows are compacted into fresh columns in the background; once the
+ * unindexed tail grows past an eighth of the rows, the index is rebuilt in the background.
+ * Either result is swapped in under the write lock, so writers never wait for a rebuild, only
+ * for a compaction to catch up with the rows they changed while it ran.
+ */
+public final class TaskStore {
+
+    private static final int MIN_REBUILD = 256;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean maintaining = new AtomicBoolean();
+
+    public TaskStore() {
+        this(List.of());
+    }
+
+    public TaskStore(Collection<Task> tasks) {
+        Builder builder = new Builder(tasks.size());
+        tasks.forEach(builder::add);
+        this.snapshot = builder.build(0);
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public long version() {
+        return snapshot.version;
+    }
+
+    public int size() {
+        return snapshot.liveCount();
+    }
+
+    public List<Task> all() {
+        Snapshot s = snapshot;
+        List<Task> tasks = new ArrayList<>(s.liveCount());
+        for (int slot = 0; slot < s.size; slot++) {
+            if (s.isLive(slot)) {
+                tasks.add(s.task(slot));
+            }
+        }
+        return tasks;
+    }
+
+    public Optional<Task> get(long id) {
+        Snapshot s = snapshot;
+        int slot = s.slotsById.get(id);
+        return slot == SegmentedLongIntMap.MISSING ? Optional.empty() : Optional.of(s.task(slot));
+    }
+
+    public void replaceAll(Collection<Task> tasks) {
+        Builder builder = new Builder(tasks.size());
+        tasks.forEach(builder::add);
+        replaceAll(builder);
+    }
+
+    /** Builds the new columns and index outside the write lock, then swaps them in at once. */
+    void replaceAll(Builder builder) {
+        Snapshot built = builder.build(0);
+        synchronized (writeLock) {
+            snapshot = built.withVersion(snapshot.version + 1);
+        }
+    }
+
+    private void publish(Snapshot next) {
+        snapshot = next;
+        if ((next.needsCompaction() || next.needsIndex()) && maintaining.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> maintain(next));
+        }
+    }
+
+    /** Compacts or indexes the rows of {@code from} off the write lock, then installs the result. */
+    private void maintain(Snapshot from) {
+        try {
+            if (from.needsCompaction()) {
+                installCompacted(from, from.compact());
+            } else {
+                installIndex(from, TaskIndex.build(from.foldedNames, from.size));
+            }
+        } finally {
+            maintaining.set(false);
+        }
+        synchronized (writeLock) {
+            publish(snapshot);
+        }
+    }
+
+    private void installIndex(Snapshot from, TaskIndex index) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current.layout == from.layout && current.index.size() < index.size()) {
+                snapshot = current.withIndex(index);
+            }
+        }
+    }
+
+    // Writes since from are carried over: a compacted row whose id no longer maps to the slot it
+    // was copied from was removed or updated, and the rows appended since are appended again.
+    private void installCompacted(Snapshot from, Compaction compaction) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current.layout != from.layout) {
+                return;
+            }
+            Snapshot compacted = compaction.snapshot();
+            if (current.version != from.version) {
+                long[] ids = compaction.snapshot().ids;
+                for (int slot = 0; slot < compaction.sourceSlots().length; slot++) {
+                    if (current.slotsById.get(ids[slot]) != compaction.sourceSlots()[slot]) {
+                        compacted = compacted.remove(ids[slot]);
+                    }
+                }
+                for (int slot = from.size; slot < current.size; slot++) {
+                    if (current.isLive(slot)) {
+                        compacted = compacted.append(current.task(slot));
+                    }
+                }
+            }
+            snapshot = compacted.withVersion(current.version);
+        }
+    }
+
+    public void add(Task task) {
+        synchronized (writeLock) {
+            if (snapshot.slotsById.get(task.id()) != SegmentedLongIntMap.MISSING) {
+                throw new IllegalArgumentException("Task already exists: " + task.id());
+            }
+            publish(snapshot.append(task));
+        }
+    }
+
+    public boolean update(Task task) {
+        synchronized (writeLock) {
+            if (snapshot.slotsById.get(task.id()) == SegmentedLongIntMap.MISSING) {
+                return false;
+            }
+            publish(snapshot.append(task));
+            return true;
+        }
+    }
+
+    public boolean remove(long id) {
+        synchronized (writeLock) {
+            if (snapshot.slotsById.get(id) == SegmentedLongIntMap.MISSING) {
+                return false;
+            }
+            publish(snapshot.remove(id));
+            return true;
+        }
+    }
+
+    static final class Snapshot {
+        private final long version;
+        private final int size;
+        private final long[] ids;
+        private final String[] names;
+        private final String[] foldedNames;
+        private final byte[] descriptions;
+        private final int[] descriptionEnds;
+        private final SegmentedLongIntMap slotsById;
+        private final TaskIndex index;
+        // Identifies one assignment of rows to slots; compaction starts a new one.
+        private final Object layout;
+        private volatile int[] slotsInIdOrder;
+
+        private Snapshot(long version, int size, long[] ids, String[] names, String[] foldedNames,
+                         byte[] descriptions, int[] descriptionEnds, SegmentedLongIntMap slotsById, TaskIndex index,
+                         Object layout) {
+            this.version = version;
+            this.size = size;
+            this.ids = ids;
+            this.names = names;
+            this.foldedNames = foldedNames;
+            this.descriptions = descriptions;
+            this.descriptionEnds = descriptionEnds;
+            this.slotsById = slotsById;
+            this.index = index;
+            this.layout = layout;
+        }
+
+        private Snapshot withVersion(long version) {
+            return new Snapshot(version, size, ids, names, foldedNames, descriptions, descriptionEnds,
+                    slotsById, index, layout);
+        }
+
+        private Snapshot withIndex(TaskIndex index) {
+            return new Snapshot(version, size, ids, names, foldedNames, descriptions, descriptionEnds,
+                    slotsById, index, layout);
+        }
+
+        private boolean needsCompaction() {
+            return size - liveCount() > Math.max(MIN_REBUILD, liveCount() / 4);
+        }
+
+        private boolean needsIndex() {
+            return size - index.size() > Math.max(MIN_REBUILD, size / 8);
+        }
+
+        int size() {
+            return size;
+        }
+
+        long version() {
+            return version;
+        }
+
+        int liveCount() {
+            return slotsById.size();
+        }
+
+        TaskIndex index() {
+            return index;
+        }
+
+        boolean isLive(int slot) {
+            return slotsById.get(ids[slot]) == slot;
+        }
+
+        long id(int slot) {
+            return ids[slot];
+        }
+
+        String name(int slot) {
+            return names[slot];
+        }
+
+        String foldedName(int slot) {
+            return foldedNames[slot];
+        }
+
+        String description(int slot) {
+            int start = slot == 0 ? 0 : descriptionEnds[slot - 1];
+            return new String(descriptions, start, descriptionEnds[slot] - start, StandardCharsets.UTF_8);
+        }
+
+        Task task(int slot) {
+            return new Task(ids[slot], names[slot], description(slot));
+        }
+
+        /** Returns the live slots ordered by ascending task id, computed once per snapshot. */
+        int[] slotsInIdOrder() {
+            int[] order = slotsInIdOrder;
+            if (order == null) {
+                order = sortLiveSlotsById();
+                slotsInIdOrder = order;
+            }
+            return order;
+        }
+
+        private int[] sortLiveSlotsById() {
+            int[] live = new int[liveCount()];
+            int count = 0;
+            boolean sorted = true;
+            for (int slot = 0; slot < size; slot++) {
+                if (isLive(slot)) {
+                    sorted &= count == 0 || ids[live[count - 1]] < ids[slot];
+                    live[count++] = slot;
+                }
+            }
+            if (sorted) {
+                return live;
+            }
+            return Arrays.stream(live).boxed()
+                    .sorted((a, b) -> Long.compare(ids[a], ids[b]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /** Returns the ascending live slots whose folded name contains {@code foldedQuery}. */
+        int[] search(String foldedQuery) {
+            return search(foldedQuery, 0, size);
+        }
+
+        /** Like {@link #search(String)}, but only returns slots in {@code [from, to)}. */
+        int[] search(String foldedQuery, int from, int to) {
+            int indexed = index.size();
+            int[] hits = index.search(foldedQuery, from, Math.min(to, indexed));
+            if (to <= indexed && liveCount() == size) {
+                return hits;
+            }
+
+            int tail = Math.max(from, indexed);
+            int[] slots = new int[hits.length + Math.max(0, to - tail)];
+            int count = 0;
+            for (int slot : hits) {
+                if (isLive(slot)) {
+                    slots[count++] = slot;
+                }
+            }
+            for (int slot = tail; slot < to; slot++) {
+                if (foldedNames[slot].contains(foldedQuery) && isLive(slot)) {
+                    slots[count++] = slot;
+                }
+            }
+            return Arrays.copyOf(slots, count);
+        }
+
+        Snapshot append(Task task) {
+            long id = Objects.requireNonNull(task.id(), "Task id is required");
+            String name = Objects.requireNonNull(task.name(), "Task name is required");
+            byte[] description = encode(task.description());
+
+            long[] ids = this.ids;
+            String[] names = this.names;
+            String[] foldedNames = this.foldedNames;
+            int[] descriptionEnds = this.descriptionEnds;
+            if (size == ids.length) {
+                int capacity = ids.length + (ids.length >> 1) + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                foldedNames = Arrays.copyOf(foldedNames, capacity);
+                descriptionEnds = Arrays.copyOf(descriptionEnds, capacity);
+            }
+            int start = size == 0 ? 0 : descriptionEnds[size - 1];
+            byte[] descriptions = this.descriptions;
+            if (start + description.length > descriptions.length) {
+                descriptions = Arrays.copyOf(descriptions, Math.max(descriptions.length * 2, start + description.length));
+            }
+
+            // Slots at or beyond the published size are invisible to readers of this snapshot.
+            System.arraycopy(description, 0, descriptions, start, description.length);
+            ids[size] = id;
+            names[size] = name;
+            foldedNames[size] = name.toLowerCase();
+            descriptionEnds[size] = start + description.length;
+
+            return new Snapshot(version + 1, size + 1, ids, names, foldedNames, descriptions, descriptionEnds,
+                    slotsById.with(id, size), index, layout);
+        }
+
+        Snapshot remove(long id) {
+            return new Snapshot(version + 1, size, ids, names, foldedNames, descriptions, descriptionEnds,
+                    slotsById.without(id), index, layout);
+        }
+
+        private Compaction compact() {
+            Builder live = new Builder(liveCount());
+            int[] sourceSlots = new int[liveCount()];
+            for (int slot = 0; slot < size; slot++) {
+                if (isLive(slot)) {
+                    sourceSlots[live.size()] = slot;
+                    live.add(ids[slot], names[slot], description(slot));
+                }
+            }
+            return new Compaction(live.build(version), sourceSlots);
+        }
+    }
+
+    /** The live rows of a snapshot in fresh columns, with the slot each was copied from. */
+    private record Compaction(Snapshot snapshot, int[] sourceSlots) {
+    }
+
+    /** Accumulates rows straight into columns, so bulk loads never hold a list of tasks. */
+    static final class Builder {
+        private long[] ids;
+        private String[] names;
+        private String[] foldedNames;
+        private int[] descriptionEnds;
+        private byte[] descriptions = new byte[1024];
+        private final LongIntHashMap slotsById;
+        private int size;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            ids = new long[capacity];
+            names = new String[capacity];
+            foldedNames = new String[capacity];
+            descriptionEnds = new int[capacity];
+            slotsById = new LongIntHashMap(capacity);
+        }
+
+        void add(Task task) {
+            add(Objects.requireNonNull(task.id(), "Task id is required"), task.name(), task.description());
+        }
+
+        void add(long id, String name, String description) {
+            Objects.requireNonNull(name, "Task name is required");
+            if (slotsById.get(id) != LongIntHashMap.MISSING) {
+                throw new IllegalArgumentException("Duplicate task id: " + id);
+            }
+            if (size == ids.length) {
+                int capacity = ids.length * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                foldedNames = Arrays.copyOf(foldedNames, capacity);
+                descriptionEnds = Arrays.copyOf(descriptionEnds, capacity);
+            }
+            byte[] encoded = encode(description);
+            int start = size == 0 ? 0 : descriptionEnds[size - 1];
+            if (start + encoded.length > descriptions.length) {
+                descriptions = Arrays.copyOf(descriptions, Math.max(descriptions.length * 2, start + encoded.length));
+            }
+            System.arraycopy(encoded, 0, descriptions, start, encoded.length);
+
+            ids[size] = id;
+            names[size] = name;
+            foldedNames[size] = name.toLowerCase();
+            descriptionEnds[size] = start + encoded.length;
+            slotsById.put(id, size);
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        Snapshot build(long version) {
+            return new Snapshot(version, size, ids, names, foldedNames, descriptions, descriptionEnds,
+                    SegmentedLongIntMap.of(slotsById), TaskIndex.build(foldedNames, size), new Object());
+        }
+    }
+
+    private static byte[] encode(String description) {
+        return description == null ? new byte[0] : description.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.htmxdemo.tasksearch;
+
+public record TasksChangedEvent(long version) {
+}
@@ -0,0 +1,116 @@
+package com.example.htmxdemo.tasksearch;
+
+/**
+ * Bounded max-heap keeping the {@code capacity} best-ranked slots seen so far, ordered by
+ * ascending (tier, id). Offering a candidate is O(log k) and allocation-free.
+ */
+final class TopK {
+
+    private final int[] tiers;
+    private final long[] ids;
+    private final int[] slots;
+    private int size;
+
+    static final int PREFIX = 0;
+    static final int WORD_START = 1;
+    static final int SUBSTRING = 2;
+
+    TopK(int capacity) {
+        tiers = new int[capacity];
+        ids = new long[capacity];
+        slots = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(int tier, long id, int slot) {
+        if (size < tiers.length) {
+            set(size, tier, id, slot);
+            siftUp(size++);
+        } else if (tiers.length > 0 && less(tier, id, tiers[0], ids[0])) {
+            set(0, tier, id, slot);
+            siftDown(0);
+        }
+    }
+
+    /** Offers every slot held by {@code other}, leaving it unchanged. */
+    void offerAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.tiers[i], other.ids[i], other.slots[i]);
+        }
+    }
+
+    /** Drains the heap, returning its slots best first. */
+    int[] drainSorted() {
+        int[] sorted = new int[size];
+        while (size > 0) {
+            sorted[size - 1] = slots[0];
+            size--;
+            if (size > 0) {
+                set(0, tiers[size], ids[size], slots[size]);
+                siftDown(0);
+            }
+        }
+        return sorted;
+    }
+
+    /** Ranks a match: whole-name prefix, then word prefix, then any other substring. */
+    static int tier(String foldedName, String foldedQuery) {
+        if (foldedName.startsWith(foldedQuery)) {
+            return PREFIX;
+        }
+        for (int at = foldedName.indexOf(foldedQuery, 1); at > 0; at = foldedName.indexOf(foldedQuery, at + 1)) {
+            if (!Character.isLetterOrDigit(foldedName.charAt(at - 1))) {
+                return WORD_START;
+            }
+        }
+        return SUBSTRING;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!less(tiers[parent], ids[parent], tiers[i], ids[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int largest = i;
+            for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                if (less(tiers[largest], ids[largest], tiers[child], ids[child])) {
+                    largest = child;
+                }
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private static boolean less(int tierA, long idA, int tierB, long idB) {
+        return tierA < tierB || (tierA == tierB && idA < idB);
+    }
+
+    private void set(int i, int tier, long id, int slot) {
+        tiers[i] = tier;
+        ids[i] = id;
+        slots[i] = slot;
+    }
+
+    private void swap(int a, int b) {
+        int tier = tiers[a];
+        long id = ids[a];
+        int slot = slots[a];
+        set(a, tiers[b], ids[b], slots[b]);
+        set(b, tier, id, slot);
+    }
+}
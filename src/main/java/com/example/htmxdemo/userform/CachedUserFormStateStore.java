@@ -0,0 +1,87 @@
+package com.example.htmxdemo.userform;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Keeps forms in a size-bounded cache keyed by a random handle, evicting the least valuable
+ * and idle entries so abandoned forms cannot accumulate. Changes run inside the cache's
+ * per-key atomic compute, so concurrent tag edits to one form are applied one at a time.
+ * Entries only ever exist under handles this store issued: a handle it does not hold, whether
+ * made up by the client or already evicted, starts a new form under a new handle.
+ */
+class CachedUserFormStateStore implements UserFormStateStore {
+
+    private final UserFormService userFormService;
+    private final Cache<String, UserForm> forms;
+    private final SecureRandom random = new SecureRandom();
+
+    CachedUserFormStateStore(UserFormService userFormService, long maximumSize, Duration idleTimeout) {
+        this.userFormService = userFormService;
+        this.forms = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    @Override
+    public UserForm load(String handle, HttpServletRequest request) {
+        UserForm form = handle == null ? null : forms.getIfPresent(handle);
+        if (form == null) {
+            return userFormService.initializeForm();
+        }
+        synchronized (form) {
+            return form.copy();
+        }
+    }
+
+    @Override
+    public <R> Update<R> update(String handle, HttpServletRequest request, Function<UserForm, R> change) {
+        if (handle != null) {
+            Object[] outcome = new Object[2];
+            UserForm stored = forms.asMap().computeIfPresent(handle, (k, form) -> {
+                synchronized (form) {
+                    outcome[0] = change.apply(form);
+                    outcome[1] = form.copy();
+                }
+                return form;
+            });
+            if (stored != null) {
+                @SuppressWarnings("unchecked")
+                R result = (R) outcome[0];
+                return new Update<>((UserForm) outcome[1], handle, result);
+            }
+        }
+
+        // Nobody else knows a fresh handle yet, so the new form needs no locking.
+        UserForm form = userFormService.initializeForm();
+        R result = change.apply(form);
+        String key = newHandle();
+        forms.put(key, form);
+        return new Update<>(form.copy(), key, result);
+    }
+
+    @Override
+    public void discard(String handle, HttpServletRequest request) {
+        if (handle != null) {
+            forms.invalidate(handle);
+        }
+    }
+
+    long size() {
+        forms.cleanUp();
+        return forms.estimatedSize();
+    }
+
+    private String newHandle() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
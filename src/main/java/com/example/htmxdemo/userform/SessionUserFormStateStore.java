@@ -0,0 +1,53 @@
+package com.example.htmxdemo.userform;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.util.WebUtils;
+
+import java.util.function.Function;
+
+/** Keeps the form in the {@code HttpSession}, serialising changes on the session mutex. */
+class SessionUserFormStateStore implements UserFormStateStore {
+
+    private static final String ATTRIBUTE = "userForm";
+
+    private final UserFormService userFormService;
+
+    SessionUserFormStateStore(UserFormService userFormService) {
+        this.userFormService = userFormService;
+    }
+
+    @Override
+    public UserForm load(String handle, HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return userFormService.initializeForm();
+        }
+        synchronized (WebUtils.getSessionMutex(session)) {
+            UserForm form = (UserForm) session.getAttribute(ATTRIBUTE);
+            return form == null ? userFormService.initializeForm() : form.copy();
+        }
+    }
+
+    @Override
+    public <R> Update<R> update(String handle, HttpServletRequest request, Function<UserForm, R> change) {
+        HttpSession session = request.getSession();
+        synchronized (WebUtils.getSessionMutex(session)) {
+            UserForm form = (UserForm) session.getAttribute(ATTRIBUTE);
+            if (form == null) {
+                form = userFormService.initializeForm();
+            }
+            R result = change.apply(form);
+            session.setAttribute(ATTRIBUTE, form);
+            return new Update<>(form.copy(), null, result);
+        }
+    }
+
+    @Override
+    public void discard(String handle, HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.removeAttribute(ATTRIBUTE);
+        }
+    }
+}
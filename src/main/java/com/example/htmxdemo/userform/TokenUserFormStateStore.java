@@ -0,0 +1,207 @@
+package com.example.htmxdemo.userform;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps no server-side state: the whole form travels with each request as a compact token.
+ * The token is the form's fields as length-prefixed UTF-8, deflated when that makes it smaller,
+ * followed by an HMAC-SHA256 tag and encoded as URL-safe Base64. Tokens that fail
+ * verification or exceed the size limits are treated as a new form, so a form whose token
+ * would exceed them is refused when encoding rather than issued and then lost.
+ */
+class TokenUserFormStateStore implements UserFormStateStore {
+
+    static final int MAX_TOKEN_LENGTH = 8192;
+    private static final int MAX_STATE_BYTES = 1 << 20;
+    private static final int TAG_LENGTH = 32;
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private final UserFormService userFormService;
+    private final SecretKeySpec key;
+    private final boolean compress;
+
+    TokenUserFormStateStore(UserFormService userFormService, byte[] secret, boolean compress) {
+        this.userFormService = userFormService;
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.compress = compress;
+    }
+
+    @Override
+    public UserForm load(String handle, HttpServletRequest request) {
+        UserForm form = decode(handle);
+        return form == null ? userFormService.initializeForm() : form;
+    }
+
+    @Override
+    public <R> Update<R> update(String handle, HttpServletRequest request, Function<UserForm, R> change) {
+        UserForm form = load(handle, request);
+        R result = change.apply(form);
+        return new Update<>(form.copy(), encode(form), result);
+    }
+
+    @Override
+    public void discard(String handle, HttpServletRequest request) {
+    }
+
+    String encode(UserForm form) {
+        byte[] payload = serialize(form);
+        byte format = PLAIN;
+        if (compress) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                format = DEFLATED;
+            }
+        }
+        byte[] token = new byte[1 + payload.length + TAG_LENGTH];
+        token[0] = format;
+        System.arraycopy(payload, 0, token, 1, payload.length);
+        System.arraycopy(sign(token, 1 + payload.length), 0, token, 1 + payload.length, TAG_LENGTH);
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        if (encoded.length() > MAX_TOKEN_LENGTH) {
+            throw new StateTooLargeException("Form state token of " + encoded.length() + " characters exceeds "
+                    + MAX_TOKEN_LENGTH);
+        }
+        return encoded;
+    }
+
+    UserForm decode(String handle) {
+        if (handle == null || handle.isBlank() || handle.length() > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        try {
+            byte[] token = Base64.getUrlDecoder().decode(handle);
+            int signed = token.length - TAG_LENGTH;
+            if (signed < 1 || !MessageDigest.isEqual(sign(token, signed), Arrays.copyOfRange(token, signed, token.length))) {
+                return null;
+            }
+            byte[] payload = Arrays.copyOfRange(token, 1, signed);
+            if (token[0] == DEFLATED) {
+                payload = inflate(payload);
+            }
+            return deserialize(payload);
+        } catch (IllegalArgumentException | IOException | DataFormatException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(byte[] data, int length) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            mac.update(data, 0, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static byte[] serialize(UserForm form) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, nullToEmpty(form.getName()));
+            writeString(out, nullToEmpty(form.getEmail()));
+            writeString(out, nullToEmpty(form.getPhone()));
+            out.writeInt(form.getTags().size());
+            for (String tag : form.getTags()) {
+                writeString(out, tag);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialise form state", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static UserForm deserialize(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            UserForm form = new UserForm();
+            form.setName(readString(in));
+            form.setEmail(readString(in));
+            form.setPhone(readString(in));
+            int count = in.readInt();
+            // Every tag takes at least its four length bytes.
+            if (count < 0 || count > in.available() / Integer.BYTES) {
+                throw new IOException("Malformed tag count " + count);
+            }
+            List<String> tags = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tags.add(readString(in));
+            }
+            form.setTags(tags);
+            return form;
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[data.length + 64];
+            int length = deflater.deflate(buffer);
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated form state");
+                }
+                out.write(buffer, 0, length);
+                if (out.size() > MAX_STATE_BYTES) {
+                    throw new DataFormatException("Form state too large");
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Malformed string length " + length);
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
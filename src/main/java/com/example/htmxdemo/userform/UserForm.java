@@ -26,6 +26,15 @@ public class UserForm {
     public UserForm() {
     }
 
+    public UserForm copy() {
+        UserForm copy = new UserForm();
+        copy.setName(name);
+        copy.setEmail(email);
+        copy.setPhone(phone);
+        copy.setTags(new ArrayList<>(tags));
+        return copy;
+    }
+
     public String getName() {
         return name;
     }
@@ -1,80 +1,155 @@
 package com.example.htmxdemo.userform;
 
+import com.example.htmxdemo.fragment.HtmxResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.SessionAttributes;
-import org.springframework.web.bind.support.SessionStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
 
 @Controller
-@SessionAttributes("userForm")
 public class UserFormController {
 
+    private static final String FORM_STATE = "formState";
+    private static final HtmxResponse TAG_LIST_AND_INPUT = HtmxResponse.view("userform/userform :: tag-list")
+            .oob("userform/userform :: tag-input")
+            .build();
+
     private final UserFormService userFormService;
+    private final UserFormStateStore stateStore;
+    private final UserFormFieldValidator fieldValidator;
 
-    public UserFormController(UserFormService userFormService) {
+    public UserFormController(UserFormService userFormService, UserFormStateStore stateStore,
+                              UserFormFieldValidator fieldValidator) {
         this.userFormService = userFormService;
-    }
-
-    @ModelAttribute("userForm")
-    public UserForm userForm() {
-        return userFormService.initializeForm();
+        this.stateStore = stateStore;
+        this.fieldValidator = fieldValidator;
     }
 
     @GetMapping("/userform")
-    public String index(@ModelAttribute("userForm") UserForm userForm, Model model) {
+    public String index(@RequestParam(value = FORM_STATE, required = false) String formState,
+                        HttpServletRequest request,
+                        Model model) {
+        model.addAttribute("userForm", stateStore.load(formState, request));
+        model.addAttribute(FORM_STATE, formState);
         return "userform/userform";
     }
 
     @PostMapping("/userform/validate")
     public String validateForm(@Valid @ModelAttribute("userForm") UserForm form,
                                BindingResult bindingResult,
+                               @RequestParam(value = FORM_STATE, required = false) String formState,
+                               HttpServletRequest request,
                                Model model) {
+        UserFormStateStore.Update<Void> update;
+        try {
+            update = stateStore.update(formState, request, stored -> {
+                stored.setName(form.getName());
+                stored.setEmail(form.getEmail());
+                stored.setPhone(form.getPhone());
+                return null;
+            });
+        } catch (UserFormStateStore.StateTooLargeException e) {
+            // Only values far beyond the field constraints get here, and those already show errors.
+            restoreTags(form, formState, request, model);
+            return "userform/userform :: form-section";
+        }
+        form.setTags(update.form().getTags());
+        model.addAttribute(FORM_STATE, update.handle());
         return "userform/userform :: form-section";
     }
 
+    @PostMapping("/userform/validate/{field}")
+    public String validateField(@PathVariable String field,
+                                @RequestParam Map<String, String> params,
+                                Model model) {
+        if (!fieldValidator.supports(field)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown field: " + field);
+        }
+        BindingResult result = fieldValidator.validate(field, params.getOrDefault(field, ""));
+        model.addAttribute("userForm", result.getTarget());
+        model.addAttribute(BindingResult.MODEL_KEY_PREFIX + "userForm", result);
+        return "userform/userform :: " + field + "-field";
+    }
+
+    /** Refreshes the tag list and the new-tag input, with its error state, in one response. */
     @PostMapping("/userform/add-tag")
-    public String addTag(@ModelAttribute("userForm") UserForm form,
-                         @RequestParam(value = "newTag", required = false) String newTag,
-                         Model model) {
+    public HtmxResponse addTag(@RequestParam(value = "newTag", required = false) String newTag,
+                               @RequestParam(value = FORM_STATE, required = false) String formState,
+                               HttpServletRequest request,
+                               Model model) {
         if (newTag == null || newTag.trim().isEmpty()) {
+            model.addAttribute("userForm", stateStore.load(formState, request));
+            model.addAttribute(FORM_STATE, formState);
             model.addAttribute("newTagError", "Tag is required");
-            return "userform/userform :: tag-section";
+            return TAG_LIST_AND_INPUT;
         }
 
         String trimmedTag = newTag.trim();
-        if (form.getTags().stream().anyMatch(tag -> tag.equalsIgnoreCase(trimmedTag))) {
-            model.addAttribute("newTagError", "Tag already exists");
-            return "userform/userform :: tag-section";
+        UserFormStateStore.Update<String> update;
+        try {
+            update = stateStore.update(formState, request, stored -> {
+                if (stored.getTags().stream().anyMatch(tag -> tag.equalsIgnoreCase(trimmedTag))) {
+                    return "Tag already exists";
+                }
+                userFormService.addTag(stored, trimmedTag);
+                return null;
+            });
+        } catch (UserFormStateStore.StateTooLargeException e) {
+            model.addAttribute("userForm", stateStore.load(formState, request));
+            model.addAttribute(FORM_STATE, formState);
+            model.addAttribute("newTag", trimmedTag);
+            model.addAttribute("newTagError", "Too many tags; remove one before adding another");
+            return TAG_LIST_AND_INPUT;
         }
-
-        userFormService.addTag(form, trimmedTag);
-        model.addAttribute("newTagError", null);
-        return "userform/userform :: tag-section";
+        model.addAttribute("userForm", update.form());
+        model.addAttribute(FORM_STATE, update.handle());
+        model.addAttribute("newTag", trimmedTag);
+        model.addAttribute("newTagError", update.result());
+        return TAG_LIST_AND_INPUT;
     }
 
     @PostMapping("/userform/remove-tag")
-    public String removeTag(@ModelAttribute("userForm") UserForm form,
-                            @RequestParam("index") int index,
+    public String removeTag(@RequestParam("index") int index,
+                            @RequestParam(value = FORM_STATE, required = false) String formState,
+                            HttpServletRequest request,
                             Model model) {
-        userFormService.removeTag(form, index);
+        UserFormStateStore.Update<Void> update = stateStore.update(formState, request, stored -> {
+            userFormService.removeTag(stored, index);
+            return null;
+        });
+        model.addAttribute("userForm", update.form());
+        model.addAttribute(FORM_STATE, update.handle());
         return "userform/userform :: tag-list";
     }
 
     @PostMapping("/userform/submit")
     public String submitForm(@Valid @ModelAttribute("userForm") UserForm form,
                              BindingResult bindingResult,
-                             SessionStatus sessionStatus,
+                             @RequestParam(value = FORM_STATE, required = false) String formState,
+                             HttpServletRequest request,
                              Model model) {
+        restoreTags(form, formState, request, model);
         if (bindingResult.hasErrors()) {
             return "userform/userform :: form-section";
         }
-        sessionStatus.setComplete();
+        stateStore.discard(formState, request);
         return "userform/success :: form-section-success";
     }
+
+    // Posted forms carry only the fields; the tags live in the stored state. Replacing the bound
+    // form in the model would drop its binding result, so the tags are copied onto it instead.
+    private void restoreTags(UserForm form, String formState, HttpServletRequest request, Model model) {
+        form.setTags(stateStore.load(formState, request).getTags());
+        model.addAttribute(FORM_STATE, formState);
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.htmxdemo.userform;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+import java.util.Set;
+
+/**
+ * Validates a single {@link UserForm} property without building or validating the rest of
+ * the form. The shared {@link Validator} caches constraint metadata and compiled patterns,
+ * so each call only evaluates the constraints declared on that one property.
+ */
+@Component
+public class UserFormFieldValidator {
+
+    static final Set<String> FIELDS = Set.of("name", "email", "phone");
+
+    private final Validator validator;
+
+    public UserFormFieldValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    public boolean supports(String field) {
+        return FIELDS.contains(field);
+    }
+
+    /** Returns a form holding only {@code value} with its violations recorded in the binding result. */
+    public BindingResult validate(String field, String value) {
+        if (!supports(field)) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+        UserForm form = new UserForm();
+        PropertyAccessorFactory.forBeanPropertyAccess(form).setPropertyValue(field, value);
+
+        BindingResult result = new BeanPropertyBindingResult(form, "userForm");
+        for (ConstraintViolation<UserForm> violation : validator.validateValue(UserForm.class, field, value)) {
+            String code = violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName();
+            result.rejectValue(field, code, violation.getMessage());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.htmxdemo.userform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.util.HttpSessionMutexListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+@Configuration
+@EnableConfigurationProperties(UserFormStateProperties.class)
+public class UserFormStateConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(UserFormStateConfiguration.class);
+
+    @Bean
+    UserFormStateStore userFormStateStore(UserFormStateProperties properties, UserFormService userFormService) {
+        return switch (properties.mode()) {
+            case SESSION -> new SessionUserFormStateStore(userFormService);
+            case TOKEN -> new TokenUserFormStateStore(userFormService, secret(properties), properties.compress());
+            case STORE -> new CachedUserFormStateStore(userFormService, properties.maxEntries(),
+                    properties.idleTimeout());
+        };
+    }
+
+    @Bean
+    ServletListenerRegistrationBean<HttpSessionMutexListener> httpSessionMutexListener() {
+        return new ServletListenerRegistrationBean<>(new HttpSessionMutexListener());
+    }
+
+    private static byte[] secret(UserFormStateProperties properties) {
+        if (properties.secret() != null && !properties.secret().isBlank()) {
+            return properties.secret().getBytes(StandardCharsets.UTF_8);
+        }
+        log.warn("userform.state.secret is not set; form tokens will not survive a restart "
+                + "or be accepted by other instances");
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+}
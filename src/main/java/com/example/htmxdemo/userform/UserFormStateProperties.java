@@ -0,0 +1,28 @@
+package com.example.htmxdemo.userform;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param mode        where in-progress forms are kept: {@code session}, {@code token} (signed,
+ *                    client-held) or {@code store} (bounded server-side cache)
+ * @param secret      HMAC key for {@code token} mode; every instance behind a load balancer must
+ *                    share it. A random per-process key is used when blank
+ * @param compress    whether {@code token} mode deflates tokens when that makes them smaller
+ * @param maxEntries  maximum number of forms kept in {@code store} mode
+ * @param idleTimeout how long an untouched form is kept in {@code store} mode
+ */
+@ConfigurationProperties("userform.state")
+public record UserFormStateProperties(
+        @DefaultValue("session") Mode mode,
+        String secret,
+        @DefaultValue("true") boolean compress,
+        @DefaultValue("10000") long maxEntries,
+        @DefaultValue("30m") Duration idleTimeout) {
+
+    public enum Mode {
+        SESSION, TOKEN, STORE
+    }
+}
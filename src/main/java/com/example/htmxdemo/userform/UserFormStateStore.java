@@ -0,0 +1,38 @@
+package com.example.htmxdemo.userform;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.function.Function;
+
+/**
+ * Keeps a visitor's in-progress {@link UserForm} between htmx requests. Each implementation
+ * hands out an opaque handle that the page sends back in the {@code formState} field; the
+ * session-backed store ignores it.
+ */
+public interface UserFormStateStore {
+
+    /** Returns a private copy of the current form, or a freshly initialised one. */
+    UserForm load(String handle, HttpServletRequest request);
+
+    /**
+     * Applies {@code change} to the stored form so that concurrent changes to one visitor's
+     * form never overwrite each other, and returns the result with the handle to render next.
+     *
+     * @throws StateTooLargeException if the changed form is too large to keep; the stored form
+     *                                and its handle are left as they were
+     */
+    <R> Update<R> update(String handle, HttpServletRequest request, Function<UserForm, R> change);
+
+    void discard(String handle, HttpServletRequest request);
+
+    record Update<R>(UserForm form, String handle, R result) {
+    }
+
+    /** Thrown when a change would leave more form state than the store can hand back. */
+    class StateTooLargeException extends RuntimeException {
+
+        public StateTooLargeException(String message) {
+            super(message);
+        }
+    }
+}
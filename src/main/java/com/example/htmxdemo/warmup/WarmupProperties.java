@@ -0,0 +1,18 @@
+package com.example.htmxdemo.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled    whether hot endpoints are exercised before the application reports ready
+ * @param iterations how many times each warm-up request is repeated after the first pass
+ * @param timeout    upper bound on the whole warm-up; readiness is never held back longer
+ */
+@ConfigurationProperties("warmup")
+public record WarmupProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("200") int iterations,
+        @DefaultValue("30s") Duration timeout) {
+}
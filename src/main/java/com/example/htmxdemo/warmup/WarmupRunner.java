@@ -0,0 +1,125 @@
+package com.example.htmxdemo.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sends the application's hot requests to itself before it reports ready. Application runners
+ * finish before the readiness state becomes {@code ACCEPTING_TRAFFIC}, so a load balancer that
+ * watches {@code /actuator/health/readiness} only routes users here once every template has
+ * been parsed into the cache, the task index and fragment cache are populated and the request
+ * path has been compiled by the JIT. Only requests without side effects are used.
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    static final List<WarmupRequest> REQUESTS = List.of(
+            WarmupRequest.get("/", false),
+            WarmupRequest.get("/tasksearch", false),
+            WarmupRequest.get("/userform", false),
+            WarmupRequest.post("/tasksearch/search?query=data"),
+            WarmupRequest.post("/tasksearch/search?query=d"),
+            WarmupRequest.post("/tasksearch/search?query=data&cursor=0:1"),
+            WarmupRequest.post("/tasksearch/search?query=authetication"),
+            WarmupRequest.get("/tasksearch/1", true),
+            WarmupRequest.post("/userform/validate/email?email=warm-up@example.com"),
+            WarmupRequest.post("/userform/validate/phone?phone=123"),
+            WarmupRequest.post("/userform/submit?name=Warm+Up&email=warm-up@example.com&phone=1234567890"));
+
+    private final WarmupProperties properties;
+    private final WebServerApplicationContext context;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    public WarmupRunner(WarmupProperties properties, WebServerApplicationContext context) {
+        this.properties = properties;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String base = "http://localhost:" + context.getWebServer().getPort();
+        long started = System.nanoTime();
+        long deadline = started + properties.timeout().toNanos();
+
+        long slowestNanos = 0;
+        String slowest = null;
+        for (WarmupRequest request : REQUESTS) {
+            long nanos = send(base, request);
+            if (nanos > slowestNanos) {
+                slowestNanos = nanos;
+                slowest = request.path();
+            }
+        }
+        long firstPassNanos = System.nanoTime() - started;
+
+        int sent = REQUESTS.size();
+        long lastPassNanos = firstPassNanos;
+        for (int i = 0; i < properties.iterations() && System.nanoTime() - deadline < 0; i++) {
+            long passStarted = System.nanoTime();
+            for (WarmupRequest request : REQUESTS) {
+                send(base, request);
+            }
+            lastPassNanos = System.nanoTime() - passStarted;
+            sent += REQUESTS.size();
+        }
+
+        log.info("Warm-up sent {} requests in {} ms; first pass {} ms (slowest {} at {} ms), last pass {} ms; "
+                        + "JVM up {} ms",
+                sent, millis(System.nanoTime() - started), millis(firstPassNanos), slowest, millis(slowestNanos),
+                millis(lastPassNanos), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    private long send(String base, WarmupRequest request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + request.path()))
+                .timeout(Duration.ofSeconds(5));
+        if (request.htmx()) {
+            builder.header("HX-Request", "true");
+        }
+        builder.method(request.method(), HttpRequest.BodyPublishers.noBody());
+        long started = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(builder.build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                log.warn("Warm-up request {} {} returned {}", request.method(), request.path(), response.statusCode());
+            }
+        } catch (IOException e) {
+            log.warn("Warm-up request {} {} failed: {}", request.method(), request.path(), e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return System.nanoTime() - started;
+    }
+
+    private static long millis(long nanos) {
+        return Duration.ofNanos(nanos).toMillis();
+    }
+
+    record WarmupRequest(String method, String path, boolean htmx) {
+        static WarmupRequest get(String path, boolean htmx) {
+            return new WarmupRequest("GET", path, htmx);
+        }
+
+        static WarmupRequest post(String path) {
+            return new WarmupRequest("POST", path, true);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+// The part of htmx's SSE extension this application uses: an element with sse-connect opens an
+// EventSource, and each sse-swap element inside it swaps in the data of the events it names,
+// comma separated, according to its hx-swap. The browser reconnects a dropped stream by itself.
+(function () {
+    let api;
+
+    htmx.defineExtension('sse', {
+        init: function (internalApi) {
+            api = internalApi;
+        },
+
+        getSelectors: function () {
+            return ['[sse-connect]', '[sse-swap]'];
+        },
+
+        onEvent: function (name, event) {
+            const elt = event.target;
+            if (name === 'htmx:afterProcessNode' && api.hasAttribute(elt, 'sse-connect')) {
+                connect(elt);
+            } else if (name === 'htmx:beforeCleanupElement') {
+                const source = api.getInternalData(elt).sseSource;
+                if (source) {
+                    source.close();
+                }
+            }
+        }
+    });
+
+    function connect(elt) {
+        const data = api.getInternalData(elt);
+        if (data.sseSource) {
+            return;
+        }
+        const source = new EventSource(api.getAttributeValue(elt, 'sse-connect'));
+        data.sseSource = source;
+        const swaps = [elt, ...elt.querySelectorAll('[sse-swap]')]
+            .filter(target => api.hasAttribute(target, 'sse-swap'));
+        swaps.forEach(target => {
+            api.getAttributeValue(target, 'sse-swap').split(',').forEach(eventName => {
+                source.addEventListener(eventName.trim(), message => {
+                    if (api.bodyContains(target)) {
+                        api.swap(target, message.data, api.getSwapSpecification(target), { contextElement: target });
+                    }
+                });
+            });
+        });
+    }
+})();
@@ -0,0 +1,100 @@
+package com.example.htmxdemo.assets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StaticAssetTest {
+
+    private static final Pattern STYLESHEET =
+            Pattern.compile("href=\"(/vendor/bootstrap/5\\.3\\.3/css/bootstrap\\.min-[0-9a-f]{32}\\.css)\"");
+    private static final Pattern SCRIPT =
+            Pattern.compile("src=\"(/vendor/htmx/2\\.0\\.8/htmx\\.min-[0-9a-f]{32}\\.js)\"");
+    private static final Pattern EXTERNAL_ASSET =
+            Pattern.compile("<(?:script|link)\\b[^>]*\\b(?:src|href)=\"(?:[a-z]+:)?//");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void pagesLinkSelfHostedFingerprintedAssets() {
+        String page = restTemplate.getForObject("/tasksearch", String.class);
+
+        assertThat(page).doesNotContain("cdn.jsdelivr.net");
+        assertThat(STYLESHEET.matcher(page).find()).isTrue();
+        assertThat(page).containsPattern("href=\"/css/autocomplete-[0-9a-f]{32}\\.css\"");
+    }
+
+    @Test
+    void pagesLoadNoAssetsFromOtherOrigins() {
+        for (String path : new String[] {"/", "/tasksearch", "/userform"}) {
+            String page = restTemplate.getForObject(path, String.class);
+
+            assertThat(EXTERNAL_ASSET.matcher(page).find()).as(path).isFalse();
+            assertThat(SCRIPT.matcher(page).find()).as(path).isTrue();
+        }
+        assertThat(restTemplate.getForObject("/", String.class))
+                .containsPattern("src=\"/js/sse-[0-9a-f]{32}\\.js\"");
+    }
+
+    @Test
+    void servesFingerprintedScriptsPrecompressed() throws IOException {
+        Matcher link = SCRIPT.matcher(restTemplate.getForObject("/", String.class));
+        assertThat(link.find()).isTrue();
+
+        ResponseEntity<byte[]> response = get(link.group(1), "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getCacheControl()).contains("max-age=31536000", "immutable");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(new String(in.readAllBytes())).contains("version:\"2.0.8\"");
+        }
+    }
+
+    @Test
+    void servesFingerprintedAssetsPrecompressedAndImmutable() throws IOException {
+        Matcher link = STYLESHEET.matcher(restTemplate.getForObject("/tasksearch", String.class));
+        assertThat(link.find()).isTrue();
+
+        ResponseEntity<byte[]> response = get(link.group(1), "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeaders().getCacheControl()).contains("max-age=31536000", "immutable");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            assertThat(new String(in.readAllBytes())).startsWith("@charset \"UTF-8\";/*!\n * Bootstrap  v5.3.3");
+        }
+    }
+
+    @Test
+    void revalidatesAssetsRequestedByTheirPlainName() {
+        ResponseEntity<byte[]> response = get("/css/autocomplete.css", "identity");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+    }
+
+    private ResponseEntity<byte[]> get(String path, String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+}
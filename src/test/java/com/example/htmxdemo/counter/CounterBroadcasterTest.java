@@ -0,0 +1,177 @@
+package com.example.htmxdemo.counter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "counter.sse.tick=50ms")
+class CounterBroadcasterTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private CounterBroadcaster broadcaster;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Stream<String>> streams = new ArrayList<>();
+    private final List<Thread> readers = new ArrayList<>();
+
+    @AfterEach
+    void closeStreams() throws InterruptedException {
+        streams.forEach(Stream::close);
+        for (Thread reader : readers) {
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Test
+    void pushesTheCurrentCountAndLaterIncrementsToEveryClient() throws Exception {
+        BlockingQueue<String> first = connect();
+        BlockingQueue<String> second = connect();
+        assertThat(nextData(first)).contains("id=\"count-display\"", ">" + counterService.getCount() + "<");
+        nextData(second);
+
+        long count = counterService.increment();
+
+        assertThat(nextDataContaining(first, ">" + count + "<")).contains("id=\"count-display\"");
+        assertThat(nextDataContaining(second, ">" + count + "<")).contains("id=\"count-display\"");
+    }
+
+    @Test
+    void coalescesABurstOfIncrementsIntoFewBroadcasts() throws Exception {
+        BlockingQueue<String> events = connect();
+        nextData(events);
+
+        long count = 0;
+        for (int i = 0; i < 1000; i++) {
+            count = counterService.increment();
+        }
+
+        int broadcasts = 1;
+        while (!nextData(events).contains(">" + count + "<")) {
+            broadcasts++;
+        }
+        assertThat(broadcasts).isLessThanOrEqualTo(3);
+        assertThat(broadcaster.subscriberCount()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void evictsAStalledClientWithoutHoldingUpTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StalledEmitter stalled = new StalledEmitter(release);
+        try {
+            broadcaster.subscribe(stalled);
+            counterService.increment();
+            assertThat(stalled.sending.await(5, TimeUnit.SECONDS)).isTrue();
+            BlockingQueue<String> events = connect();
+            nextData(events);
+            int subscribers = broadcaster.subscriberCount();
+            long dropped = broadcaster.droppedCount();
+
+            for (int i = 0; i < 20; i++) {
+                nextDataContaining(events, ">" + counterService.increment() + "<");
+            }
+
+            assertThat(broadcaster.droppedCount()).isEqualTo(dropped + 1);
+            assertThat(broadcaster.subscriberCount()).isEqualTo(subscribers - 1);
+            assertThat(stalled.completed).isFalse();
+        } finally {
+            release.countDown();
+        }
+        assertThat(stalled.completedLatch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private BlockingQueue<String> connect() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/counter/stream"))
+                .header("Accept", "text/event-stream")
+                .build();
+        Stream<String> lines = client.send(request, HttpResponse.BodyHandlers.ofLines()).body();
+        streams.add(lines);
+        BlockingQueue<String> data = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try {
+                lines.filter(line -> line.startsWith("data:")).forEach(data::add);
+            } catch (UncheckedIOException e) {
+                // closeStreams closed the stream under the reader.
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        readers.add(reader);
+        return data;
+    }
+
+    // Takes the event sent on subscribing, then blocks in send while holding the emitter's monitor,
+    // like a write to a client that stopped reading.
+    private static final class StalledEmitter extends SseEmitter {
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completedLatch = new CountDownLatch(1);
+        private volatile boolean completed;
+        private boolean subscribed;
+
+        StalledEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            if (!subscribed) {
+                subscribed = true;
+                return;
+            }
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            completedLatch.countDown();
+        }
+    }
+
+    // A count sampled by the ticker just before a client subscribed may reach it a second time.
+    private static String nextDataContaining(BlockingQueue<String> events, String text) throws InterruptedException {
+        String data = nextData(events);
+        while (!data.contains(text)) {
+            data = nextData(events);
+        }
+        return data;
+    }
+
+    private static String nextData(BlockingQueue<String> events) throws InterruptedException {
+        String data = events.poll(5, TimeUnit.SECONDS);
+        assertThat(data).as("SSE event").isNotNull();
+        return data;
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -29,7 +32,7 @@ class CounterControllerTest {
 
     @Test
     void shouldIncrementCounterOnPost() {
-        int initialCount = counterService.getCount();
+        long initialCount = counterService.getCount();
 
         ResponseEntity<String> response = restTemplate.postForEntity("/counter/increment", null, String.class);
 
@@ -47,4 +50,22 @@ class CounterControllerTest {
         assertThat(response.getBody()).contains("<div class=\"count\"");
         assertThat(response.getBody()).doesNotContain("<!DOCTYPE html>");
     }
+
+    @Test
+    void shouldRevalidateCounterPageAgainstTheCount() {
+        ResponseEntity<String> first = restTemplate.getForEntity("/", String.class);
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(first.getHeaders().getETag());
+
+        ResponseEntity<String> unchanged = restTemplate.exchange("/", HttpMethod.GET,
+                new HttpEntity<>(conditional), String.class);
+        counterService.increment();
+        ResponseEntity<String> changed = restTemplate.exchange("/", HttpMethod.GET,
+                new HttpEntity<>(conditional), String.class);
+
+        assertThat(first.getHeaders().getVary()).contains("HX-Request");
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+    }
 }
@@ -0,0 +1,113 @@
+package com.example.htmxdemo.counter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "counter.replication.enabled=true",
+        "counter.replication.node-id=self",
+        "counter.replication.peers=http://localhost:1",
+        "counter.replication.peer-ids=peer",
+        "counter.replication.secret=test-secret",
+        "counter.replication.interval=1h"})
+class CounterReplicationEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private PNCounter counter;
+
+    @Autowired
+    private HttpCounterTransport transport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mergesSignedDeltasPostedByPeers() throws Exception {
+        long before = counterService.getCount();
+
+        ResponseEntity<Void> response = post(new CounterDelta("peer",
+                Map.of("peer", counter.remoteIncrements("peer") + 5), Map.of()), true);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(counterService.getCount()).isEqualTo(before + 5);
+        assertThat(restTemplate.postForObject("/counter/increment", null, String.class))
+                .contains(">" + (before + 6) + "<");
+    }
+
+    @Test
+    void adoptsHigherTotalsPeersHoldForThisNode() throws Exception {
+        long before = counterService.getCount();
+        long local = counter.localIncrements();
+
+        assertThat(post(new CounterDelta("peer", Map.of("self", local + 3), Map.of()), true).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(post(new CounterDelta("peer", Map.of("self", local), Map.of()), true).getStatusCode())
+                .isEqualTo(HttpStatus.NO_CONTENT);
+
+        assertThat(counter.localIncrements()).isEqualTo(local + 3);
+        assertThat(counterService.getCount()).isEqualTo(before + 3);
+    }
+
+    @Test
+    void refusesUnsignedOrForgedDeltasWithoutChangingTheCount() throws Exception {
+        long before = counterService.getCount();
+        CounterDelta forged = new CounterDelta("peer", Map.of("peer", 1_000_000L), Map.of());
+
+        assertThat(post(forged, false).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(HttpCounterTransport.SIGNATURE_HEADER, "forged");
+        assertThat(restTemplate.postForEntity(HttpCounterTransport.PATH,
+                new HttpEntity<>(objectMapper.writeValueAsBytes(forged), headers), Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(restTemplate.postForEntity("/counter/replication", forged, Void.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+
+        assertThat(counterService.getCount()).isEqualTo(before);
+    }
+
+    @Test
+    void refusesSignedDeltasFromUnknownNodesOrWithImpossibleTotals() throws Exception {
+        post(new CounterDelta("peer", Map.of("peer", 10L), Map.of()), true);
+        long before = counterService.getCount();
+
+        assertThat(post(new CounterDelta("intruder", Map.of("intruder", 5L), Map.of()), true).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(post(new CounterDelta("peer", Map.of("peer", 10L, "other", 5L), Map.of()), true).getStatusCode())
+                .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(post(new CounterDelta("peer", Map.of("peer", 10L), Map.of("peer", -5L)), true).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(post(new CounterDelta("peer", Map.of("peer", 1L), Map.of()), true).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(counterService.getCount()).isEqualTo(before);
+    }
+
+    private ResponseEntity<Void> post(CounterDelta delta, boolean signed) throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(delta);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (signed) {
+            headers.set(HttpCounterTransport.SIGNATURE_HEADER, transport.sign(body));
+        }
+        return restTemplate.postForEntity(HttpCounterTransport.PATH, new HttpEntity<>(body, headers), Void.class);
+    }
+}
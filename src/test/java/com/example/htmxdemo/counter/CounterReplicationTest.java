@@ -0,0 +1,152 @@
+package com.example.htmxdemo.counter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CounterReplicationTest {
+
+    private final List<CounterReplicator> replicators = new ArrayList<>();
+
+    @AfterEach
+    void stopReplicators() {
+        replicators.forEach(CounterReplicator::stop);
+    }
+
+    @Test
+    void replicasConvergeOnTheSumOfConcurrentIncrements() throws Exception {
+        LoopbackCounterTransport transport = new LoopbackCounterTransport();
+        List<CounterService> nodes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            nodes.add(new CounterService(replica("node-" + i, transport)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 6; t++) {
+                CounterService node = nodes.get(t % nodes.size());
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        node.increment();
+                        if (i % 1000 == 0) {
+                            replicators.forEach(CounterReplicator::gossip);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        replicators.forEach(CounterReplicator::gossip);
+
+        assertThat(nodes).allSatisfy(node -> assertThat(node.getCount()).isEqualTo(60_000));
+    }
+
+    @Test
+    void mergeIsIdempotentAndOrderInsensitive() {
+        PNCounter counter = new PNCounter("a");
+        CounterDelta older = new CounterDelta("b", Map.of("b", 3L), Map.of());
+        CounterDelta newer = new CounterDelta("b", Map.of("b", 5L), Map.of("b", 1L));
+
+        assertThat(counter.merge(newer)).isTrue();
+        assertThat(counter.merge(older)).isFalse();
+        assertThat(counter.merge(newer)).isFalse();
+        counter.add(2);
+
+        assertThat(counter.value()).isEqualTo(6);
+    }
+
+    @Test
+    void sendsOnlyChangedLocalEntriesBetweenFullSyncs() {
+        PNCounter counter = new PNCounter("a");
+        counter.merge(new CounterDelta("b", Map.of("b", 7L), Map.of()));
+
+        assertThat(counter.delta(true).increments()).containsOnlyKeys("a", "b");
+        assertThat(counter.delta(false)).isNull();
+        counter.add(1);
+        assertThat(counter.delta(false).increments()).containsExactly(Map.entry("a", 1L));
+    }
+
+    @Test
+    void fullSyncRepairsLostDeltas() {
+        LoopbackCounterTransport loopback = new LoopbackCounterTransport();
+        boolean[] dropping = {true};
+        CounterTransport lossy = new CounterTransport() {
+            @Override
+            public void publish(CounterDelta delta) {
+                if (!dropping[0]) {
+                    loopback.publish(delta);
+                }
+            }
+
+            @Override
+            public void subscribe(Consumer<CounterDelta> listener) {
+                loopback.subscribe(listener);
+            }
+        };
+        PNCounter sender = replica("sender", lossy);
+        PNCounter receiver = replica("receiver", loopback);
+        CounterReplicator replicator = replicators.get(0);
+
+        sender.add(4);
+        replicator.gossip();
+        assertThat(receiver.value()).isZero();
+
+        dropping[0] = false;
+        replicator.gossip();
+        assertThat(receiver.value()).isZero();
+        replicator.gossip();
+        assertThat(receiver.value()).isEqualTo(4);
+    }
+
+    @Test
+    void nodeRestartedUnderTheSameIdRecoversItsTotalsFromPeers() {
+        LoopbackCounterTransport transport = new LoopbackCounterTransport();
+        PNCounter original = replica("a", transport);
+        PNCounter peer = replica("b", transport);
+        original.add(5);
+        peer.add(2);
+        replicators.forEach(CounterReplicator::gossip);
+        replicators.remove(0).stop();
+
+        PNCounter restarted = replica("a", transport);
+        assertThat(restarted.value()).isZero();
+        replicators.forEach(CounterReplicator::gossip);
+        replicators.forEach(CounterReplicator::gossip);
+
+        assertThat(restarted.localIncrements()).isEqualTo(5);
+        assertThat(restarted.value()).isEqualTo(7);
+        restarted.add(1);
+        replicators.forEach(CounterReplicator::gossip);
+        assertThat(peer.value()).isEqualTo(8);
+        assertThat(restarted.value()).isEqualTo(8);
+    }
+
+    // Full state every second round; rounds are driven by the test, the timer never fires.
+    private PNCounter replica(String nodeId, CounterTransport transport) {
+        PNCounter counter = new PNCounter(nodeId);
+        CounterReplicator replicator = new CounterReplicator(counter, transport, Duration.ofHours(1), 2);
+        replicator.start();
+        replicators.add(replicator);
+        return counter;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.htmxdemo.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CounterServiceTest {
+
+    private static final int THREADS = 32;
+    private static final int INCREMENTS_PER_THREAD = 100_000;
+
+    @Test
+    void shouldNotLoseIncrementsUnderContention() throws Exception {
+        CounterService counterService = new CounterService();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> workers = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    long previous = 0;
+                    boolean monotonic = true;
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        long value = counterService.increment();
+                        monotonic &= value > previous && value >= i + 1;
+                        previous = value;
+                    }
+                    return monotonic;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> worker : workers) {
+                assertThat(worker.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(counterService.getCount()).isEqualTo((long) THREADS * INCREMENTS_PER_THREAD);
+    }
+}
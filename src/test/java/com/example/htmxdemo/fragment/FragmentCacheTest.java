@@ -0,0 +1,72 @@
+package com.example.htmxdemo.fragment;
+
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FragmentCacheTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @BeforeEach
+    void clearCache() {
+        fragmentCache.invalidateAll();
+    }
+
+    @Test
+    void shouldServeRepeatedFragmentFromCache() {
+        long hits = fragmentCache.stats().hitCount();
+        long misses = fragmentCache.stats().missCount();
+
+        ResponseEntity<String> first = restTemplate.getForEntity("/tasksearch/2", String.class);
+        ResponseEntity<String> second = restTemplate.getForEntity("/tasksearch/2", String.class);
+
+        assertThat(second.getBody()).isEqualTo(first.getBody()).contains("Create user authentication");
+        assertThat(second.getHeaders().getContentType()).isEqualTo(first.getHeaders().getContentType());
+        // The detail and the out-of-band dropdown are cached separately.
+        assertThat(fragmentCache.stats().missCount()).isEqualTo(misses + 2);
+        assertThat(fragmentCache.stats().hitCount()).isEqualTo(hits + 2);
+    }
+
+    @Test
+    void shouldKeyEntriesByModel() {
+        String database = restTemplate.postForEntity("/tasksearch/search?query=database", "", String.class).getBody();
+        String deploy = restTemplate.postForEntity("/tasksearch/search?query=deploy", "", String.class).getBody();
+
+        assertThat(database).isNotEqualTo(deploy);
+        assertThat(fragmentCache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInvalidateWhenTasksChange() {
+        restTemplate.getForEntity("/tasksearch/3", String.class);
+        assertThat(fragmentCache.size()).isEqualTo(2);
+
+        Task task = taskSearchService.getTaskById(3L).orElseThrow();
+        taskSearchService.updateTask(task);
+
+        assertThat(fragmentCache.size()).isZero();
+    }
+
+    @Test
+    void shouldNotCacheUnconfiguredViews() {
+        restTemplate.postForEntity("/counter/increment", null, String.class);
+
+        assertThat(fragmentCache.size()).isZero();
+    }
+}
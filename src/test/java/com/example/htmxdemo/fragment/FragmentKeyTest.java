@@ -0,0 +1,45 @@
+package com.example.htmxdemo.fragment;
+
+import com.example.htmxdemo.tasksearch.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FragmentKeyTest {
+
+    private static final String VIEW = "tasksearch/tasksearch :: task-page";
+
+    @Test
+    void shouldMatchEqualModelsWithoutHoldingThem() {
+        FragmentKey first = FragmentKey.of(VIEW, Map.of("query", "data", "tasks", List.of(new Task(1L, "Data", "x"))));
+        FragmentKey second = FragmentKey.of(VIEW, Map.of("tasks", List.of(new Task(1L, "Data", "x")), "query", "data"));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.weight()).isLessThan(VIEW.length() + 64);
+    }
+
+    @Test
+    void shouldDistinguishModelsThatOnlyDifferInTaskData() {
+        Map<String, ?> before = Map.of("tasks", List.of(new Task(1L, "Data", "old")));
+        Map<String, ?> after = Map.of("tasks", List.of(new Task(1L, "Data", "new")));
+
+        assertThat(FragmentKey.of(VIEW, before)).isNotEqualTo(FragmentKey.of(VIEW, after));
+    }
+
+    @Test
+    void shouldNotConfuseAdjacentValuesOrTypes() {
+        assertThat(FragmentKey.of(VIEW, Map.of("a", "bc", "d", "")))
+                .isNotEqualTo(FragmentKey.of(VIEW, Map.of("a", "b", "d", "c")));
+        assertThat(FragmentKey.of(VIEW, Map.of("a", 1))).isNotEqualTo(FragmentKey.of(VIEW, Map.of("a", 1L)));
+        assertThat(FragmentKey.of(VIEW, Map.of("a", "1"))).isNotEqualTo(FragmentKey.of(VIEW, Map.of("a", 1)));
+        assertThat(FragmentKey.of("other", Map.of("a", "1"))).isNotEqualTo(FragmentKey.of(VIEW, Map.of("a", "1")));
+    }
+
+    @Test
+    void shouldRefuseValuesItCannotFingerprint() {
+        assertThat(FragmentKey.of(VIEW, Map.of("state", new Object()))).isNull();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.htmxdemo.fragment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.View;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HtmxResponseViewTest {
+
+    @Test
+    void marksTheRootElementOutOfBand() {
+        assertThat(HtmxResponseView.markOutOfBand("\n  <div id=\"a\"><span>x</span></div>"))
+                .isEqualTo("\n  <div hx-swap-oob=\"true\" id=\"a\"><span>x</span></div>");
+        assertThat(HtmxResponseView.markOutOfBand("<!-- note --><tr class=\"row\">"))
+                .isEqualTo("<!-- note --><tr hx-swap-oob=\"true\" class=\"row\">");
+    }
+
+    @Test
+    void keepsExplicitSwapStrategiesAndEmptyFragments() {
+        assertThat(HtmxResponseView.markOutOfBand("<div hx-swap-oob=\"beforeend:#log\">x</div>"))
+                .isEqualTo("<div hx-swap-oob=\"beforeend:#log\">x</div>");
+        assertThat(HtmxResponseView.markOutOfBand("   ")).isEqualTo("   ");
+    }
+
+    @Test
+    void escapesNonAsciiTriggerDetailsSoTheHeaderStaysLatin1() throws Exception {
+        View fragment = (model, request, response) -> response.getWriter().write("<div id=\"a\"></div>");
+        HtmxResponse htmxResponse = HtmxResponse.view("a")
+                .trigger("taskSelected", Map.of("name", "Überprüfen 検索 \"ok\""))
+                .build();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new HtmxResponseView(htmxResponse, (name, locale) -> fragment, new ObjectMapper())
+                .render(Map.of(), new MockHttpServletRequest(), response);
+
+        assertThat(response.getHeader("HX-Trigger"))
+                .isEqualTo("{\"taskSelected\":{\"name\":\"\\u00DCberpr\\u00FCfen \\u691C\\u7D22 \\\"ok\\\"\"}}");
+        assertThat(new ObjectMapper().readTree(response.getHeader("HX-Trigger")).at("/taskSelected/name").asText())
+                .isEqualTo("Überprüfen 検索 \"ok\"");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.htmxdemo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class FragmentMetricsTest {
+
+    private static final String COUNT_DISPLAY = "counter/counter :: count-display";
+    private static final String TASK_DROPDOWN = "tasksearch/tasksearch :: task-dropdown";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void shouldTimeFragmentsAndCountBytesTaggedByHtmxHeader() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/counter/increment", htmxRequest(), String.class);
+
+        Timer render = registry.get("htmx.fragment.render").tags("fragment", COUNT_DISPLAY, "hx", "true").timer();
+        DistributionSummary size = registry.get("htmx.fragment.size").tags("fragment", COUNT_DISPLAY, "hx", "true").summary();
+        assertThat(render.count()).isPositive();
+        assertThat(size.totalAmount()).isGreaterThanOrEqualTo(
+                response.getBody().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void shouldRecordSearchResultCounts() {
+        restTemplate.postForEntity("/tasksearch/search?query=database", htmxRequest(), String.class);
+
+        DistributionSummary results = registry.get("htmx.search.results")
+                .tags("fragment", TASK_DROPDOWN, "hx", "true").summary();
+        assertThat(results.max()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldTagFullPageRequestsAsNonHtmx() {
+        restTemplate.getForEntity("/", String.class);
+
+        assertThat(registry.get("htmx.fragment.render").tags("fragment", "counter/counter", "hx", "false").timer()
+                .count()).isPositive();
+        assertThat(registry.get("http.server.requests").tags("uri", "/", "hx", "false").timer().count()).isPositive();
+    }
+
+    @Test
+    void shouldExposeMetricsThroughActuator() {
+        restTemplate.postForEntity("/counter/increment", htmxRequest(), String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/actuator/metrics/htmx.fragment.render", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains(COUNT_DISPLAY);
+    }
+
+    private static HttpEntity<String> htmxRequest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("HX-Request", "true");
+        return new HttpEntity<>("", headers);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.htmxdemo.persistence;
+
+import com.example.htmxdemo.HtmxDemoApplication;
+import com.example.htmxdemo.counter.CounterService;
+import com.example.htmxdemo.tasksearch.Task;
+import com.example.htmxdemo.tasksearch.TaskSearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StateJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresTheCounterAndTaskMutationsAfterARestart() {
+        int bundled;
+        try (ConfigurableApplicationContext context = start()) {
+            CounterService counter = context.getBean(CounterService.class);
+            TaskSearchService tasks = context.getBean(TaskSearchService.class);
+            bundled = tasks.taskCount();
+            for (int i = 0; i < 200; i++) {
+                counter.increment();
+            }
+            tasks.addTask(new Task(1_000L, "Persist the journal", "survives restarts"));
+            tasks.updateTask(new Task(1L, "Renamed first task", null));
+            tasks.removeTask(2L);
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            TaskSearchService tasks = context.getBean(TaskSearchService.class);
+
+            assertThat(context.getBean(CounterService.class).getCount()).isEqualTo(200);
+            assertThat(tasks.taskCount()).isEqualTo(bundled);
+            assertThat(tasks.getTaskById(1_000L)).hasValueSatisfying(task ->
+                    assertThat(task.description()).isEqualTo("survives restarts"));
+            assertThat(tasks.getTaskById(1L)).hasValueSatisfying(task ->
+                    assertThat(task.name()).isEqualTo("Renamed first task"));
+            assertThat(tasks.getTaskById(2L)).isEmpty();
+
+            tasks.replaceAllTasks(List.of(new Task(7L, "Only task", "")));
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertThat(context.getBean(TaskSearchService.class).getAllTasks())
+                    .containsExactly(new Task(7L, "Only task", ""));
+            assertThat(context.getBean(CounterService.class).getCount()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void aReplacementIsRecoverableAsSoonAsItIsAcknowledged(@TempDir Path crashed) throws IOException {
+        try (ConfigurableApplicationContext context = start(directory)) {
+            context.getBean(TaskSearchService.class).replaceAllTasks(List.of(new Task(9L, "Replaced", "")));
+            // What a crash right after the acknowledgement would leave behind.
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.copy(file, crashed.resolve(file.getFileName()));
+                }
+            }
+        }
+
+        try (ConfigurableApplicationContext context = start(crashed)) {
+            assertThat(context.getBean(TaskSearchService.class).getAllTasks())
+                    .containsExactly(new Task(9L, "Replaced", ""));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return start(directory);
+    }
+
+    // A tiny segment size makes the first run rotate and snapshot several times.
+    private ConfigurableApplicationContext start(Path directory) {
+        return new SpringApplicationBuilder(HtmxDemoApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--persistence.enabled=true",
+                "--persistence.directory=" + directory,
+                "--persistence.segment-size=256B");
+    }
+}
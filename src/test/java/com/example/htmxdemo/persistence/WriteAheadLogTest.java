@@ -0,0 +1,118 @@
+package com.example.htmxdemo.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void everyAcknowledgedRecordIsReplayedWhileCommitsAreShared() throws Exception {
+        AtomicInteger commits = new AtomicInteger();
+        WriteAheadLog wal = new WriteAheadLog(directory, Long.MAX_VALUE, () -> {
+            commits.incrementAndGet();
+            return null;
+        }, segment -> { });
+        wal.open(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> writers = new ArrayList<>();
+        try {
+            for (int t = 0; t < 16; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        wal.awaitDurable(wal.append(bytes(thread + ":" + i)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        wal.close();
+
+        assertThat(replay(1)).hasSize(3200).doesNotHaveDuplicates().contains("0:0", "15:199");
+        assertThat(commits.get()).isLessThan(3200);
+    }
+
+    @Test
+    void stopsReplayingASegmentAtATornRecord() throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(directory, Long.MAX_VALUE, () -> null, segment -> { });
+        wal.open(1);
+        wal.awaitDurable(wal.append(bytes("first")));
+        wal.awaitDurable(wal.append(bytes("second")));
+        wal.close();
+        Path segment = WriteAheadLog.segmentFile(directory, 1);
+        Files.write(segment, new byte[] {0, 0, 0, 9, 1, 2, 3, 4, 'x'}, StandardOpenOption.APPEND);
+
+        assertThat(replay(1)).containsExactly("first", "second");
+    }
+
+    @Test
+    void rotatesToANewSegmentOnceTheLimitIsReached() throws Exception {
+        List<Long> rotations = new CopyOnWriteArrayList<>();
+        WriteAheadLog wal = new WriteAheadLog(directory, 100, () -> null, rotations::add);
+        wal.open(1);
+        for (int i = 0; i < 20; i++) {
+            wal.awaitDurable(wal.append(bytes("record " + i)));
+        }
+        wal.awaitDurable(wal.rotate());
+        wal.close();
+
+        assertThat(rotations).isNotEmpty().isSorted();
+        assertThat(WriteAheadLog.segments(directory)).hasSize(rotations.size() + 1);
+        assertThat(replay(1)).hasSize(20).startsWith("record 0").endsWith("record 19");
+        assertThat(replay(rotations.get(0))).hasSizeLessThan(20);
+    }
+
+    @Test
+    void syncAfterCloseReturnsTheLastDurableTicket() throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(directory, Long.MAX_VALUE, () -> null, segment -> { });
+        wal.open(1);
+        long ticket = wal.append(bytes("last"));
+        wal.close();
+
+        assertThat(wal.sync()).isEqualTo(ticket);
+        wal.awaitDurable(wal.sync());
+        assertThatThrownBy(() -> wal.append(bytes("late"))).isInstanceOf(IllegalStateException.class);
+        assertThat(replay(1)).containsExactly("last");
+    }
+
+    private List<String> replay(long from) throws Exception {
+        List<String> records = new ArrayList<>();
+        WriteAheadLog.replay(directory, from, record -> {
+            byte[] bytes = new byte[record.remaining()];
+            record.get(bytes);
+            records.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return records;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.htmxdemo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ratelimit.client-id-rate=0.01",
+        "ratelimit.client-id-burst=3",
+        "ratelimit.budgets.search.rate=0.1",
+        "ratelimit.budgets.search.burst=1"})
+class ClientIdsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void stopsIssuingIdsToAnAddressThatKeepsAskingForNewOnes() {
+        List<String> issued = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String setCookie = restTemplate.getForEntity("/tasksearch", String.class)
+                    .getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+            if (setCookie != null) {
+                issued.add(setCookie.substring(0, setCookie.indexOf(';')));
+            }
+        }
+
+        assertThat(issued).hasSize(3).doesNotHaveDuplicates();
+        for (String cookie : issued) {
+            assertThat(search(cookie).getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(search(cookie).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        }
+    }
+
+    private ResponseEntity<String> search(String cookie) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie);
+        return restTemplate.exchange("/tasksearch/search?query=data", HttpMethod.POST, new HttpEntity<>(headers),
+                String.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.htmxdemo.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ratelimit.budgets.search.rate=0.1",
+        "ratelimit.budgets.search.burst=2"})
+class RateLimitTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void turnsAwayRequestsBeyondTheBudgetWithACheap429() {
+        double rejectedBefore = rejectedCount();
+        String client = clientIdCookie();
+        assertThat(search(client).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(search(client).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> rejected = search(client);
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getBody()).isNull();
+        assertThat(rejected.getHeaders().getFirst("HX-Reswap")).isEqualTo("none");
+        assertThat(Long.parseLong(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(1L, 10L);
+        assertThat(rejectedCount()).isEqualTo(rejectedBefore + 1);
+    }
+
+    @Test
+    void givesClientsBehindOneAddressABucketEach() {
+        String first = clientIdCookie();
+        String second = clientIdCookie();
+        assertThat(first).isNotEqualTo(second);
+
+        assertThat(search(first).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(search(first).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(search(first).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        assertThat(search(second).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void treatsAForgedClientIdAsNone() {
+        String forged = ClientIds.COOKIE + "=AAAAAAAAAAAAAAAAAAAAAA.AAAA";
+        while (search(forged).getStatusCode() == HttpStatus.OK) {
+            // Drains the bucket this address shares with every client that has no valid id.
+        }
+
+        assertThat(search().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void leavesOtherEndpointsAlone() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(restTemplate.getForEntity("/tasksearch", String.class).getStatusCode())
+                    .isEqualTo(HttpStatus.OK);
+        }
+    }
+
+    private ResponseEntity<String> search() {
+        return restTemplate.postForEntity("/tasksearch/search?query=data", null, String.class);
+    }
+
+    private ResponseEntity<String> search(String cookie) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.COOKIE, cookie);
+        return restTemplate.exchange("/tasksearch/search?query=data", HttpMethod.POST, new HttpEntity<>(headers),
+                String.class);
+    }
+
+    private String clientIdCookie() {
+        String setCookie = restTemplate.getForEntity("/tasksearch", String.class)
+                .getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertThat(setCookie).startsWith(ClientIds.COOKIE + "=").contains("HttpOnly");
+        return setCookie.substring(0, setCookie.indexOf(';'));
+    }
+
+    private double rejectedCount() {
+        return registry.get("ratelimit.rejected").tag("budget", "search").counter().count();
+    }
+}
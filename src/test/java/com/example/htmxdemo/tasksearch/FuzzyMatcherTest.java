@@ -0,0 +1,82 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyMatcherTest {
+
+    @Test
+    void measuresDistanceToTheClosestSubstring() {
+        FuzzyMatcher.Distance distance = new FuzzyMatcher.Distance("authetication");
+
+        assertThat(distance.within("create user authentication", 2)).isEqualTo(1);
+        assertThat(distance.within("two-factor authentcation", 2)).isEqualTo(2);
+        assertThat(distance.within("design database schema", 2)).isEqualTo(3);
+        assertThat(new FuzzyMatcher.Distance("user").within("create user page", 1)).isZero();
+    }
+
+    @Test
+    void trigramFilterFindsTheSameMatchesAsAFullScan() {
+        Random random = new Random(7);
+        String[] words = {"deploy", "database", "schema", "authentication", "server", "caching", "pipeline"};
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            tasks.add(new Task(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)], null));
+        }
+        TaskStore store = new TaskStore(tasks);
+        for (long id = 2001; id <= 2100; id++) {
+            store.add(new Task(id, "tail " + words[random.nextInt(words.length)], null));
+        }
+        store.remove(5);
+
+        for (String query : List.of("databse", "deplyo", "schem", "authetnication", "srever cach", "xyzzy")) {
+            int[] slots = FuzzyMatcher.search(store.snapshot(), query, 5000, Long.MAX_VALUE).slots();
+            assertThat(ids(store, slots)).as(query).containsExactlyInAnyOrder(bruteForce(store, query));
+        }
+    }
+
+    @Test
+    void ranksCloserMatchesFirst() {
+        TaskStore store = new TaskStore(List.of(
+                new Task(1L, "Deploy to staging", null),
+                new Task(2L, "Databse cleanup", null),
+                new Task(3L, "Database schema", null)));
+
+        int[] slots = FuzzyMatcher.search(store.snapshot(), "database", 10, System.nanoTime() + 1_000_000_000L).slots();
+
+        assertThat(ids(store, slots)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void returnsPartialResultsOnceTheDeadlinePasses() {
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            tasks.add(new Task(id, "database task " + id, null));
+        }
+        TaskStore store = new TaskStore(tasks);
+
+        FuzzyMatcher.Matches matches = FuzzyMatcher.search(store.snapshot(), "databse", 2000, System.nanoTime() - 1);
+
+        assertThat(matches.partial()).isTrue();
+        assertThat(matches.slots().length).isLessThan(1000);
+    }
+
+    private static Long[] ids(TaskStore store, int[] slots) {
+        return Arrays.stream(slots).mapToObj(slot -> store.snapshot().id(slot)).toArray(Long[]::new);
+    }
+
+    private static Long[] bruteForce(TaskStore store, String query) {
+        FuzzyMatcher.Distance distance = new FuzzyMatcher.Distance(query);
+        int edits = FuzzyMatcher.maxEdits(query.length());
+        return store.all().stream()
+                .filter(task -> distance.within(task.name().toLowerCase(), edits) <= edits)
+                .map(Task::id)
+                .toArray(Long[]::new);
+    }
+}
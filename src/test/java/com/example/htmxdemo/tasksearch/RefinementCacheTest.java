@@ -0,0 +1,63 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefinementCacheTest {
+
+    private static final String[] WORDS = {"data", "database", "design", "deploy", "dash", "schema", "base"};
+
+    @Test
+    void refinedResultsMatchAFullSearchForEveryKeystroke() {
+        TaskStore store = new TaskStore(tasks(2_000, new Random(42)));
+        RefinementCache cache = new RefinementCache(1_000_000);
+        TaskStore.Snapshot snapshot = store.snapshot();
+
+        for (String typed : List.of("database schema", "data base", "design", "dashx", "database")) {
+            for (int length = 1; length <= typed.length(); length++) {
+                String query = typed.substring(0, length);
+                assertThat(cache.search(snapshot, query)).as(query).containsExactly(snapshot.search(query));
+            }
+        }
+        assertThat(cache.size()).isPositive();
+    }
+
+    @Test
+    void ignoresEntriesFromAnEarlierSnapshot() {
+        TaskStore store = new TaskStore(List.of(new Task(1L, "Design database", "")));
+        RefinementCache cache = new RefinementCache(1_000_000);
+        assertThat(cache.search(store.snapshot(), "data")).hasSize(1);
+
+        store.add(new Task(2L, "Database backup", ""));
+        store.remove(1L);
+        TaskStore.Snapshot snapshot = store.snapshot();
+
+        assertThat(cache.search(snapshot, "datab")).containsExactly(snapshot.search("datab"));
+        assertThat(cache.search(snapshot, "data")).containsExactly(snapshot.search("data"));
+    }
+
+    @Test
+    void doesNotKeepSetsLargerThanASixteenthOfTheBudget() {
+        TaskStore store = new TaskStore(tasks(500, new Random(7)));
+        RefinementCache cache = new RefinementCache(160);
+
+        cache.search(store.snapshot(), "data");
+
+        assertThat(store.snapshot().search("data").length).isGreaterThan(10);
+        assertThat(cache.size()).isZero();
+    }
+
+    private static List<Task> tasks(int count, Random random) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            tasks.add(new Task((long) i + 1, name, ""));
+        }
+        return tasks;
+    }
+}
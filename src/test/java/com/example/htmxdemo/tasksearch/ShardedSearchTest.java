@@ -0,0 +1,113 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedSearchTest {
+
+    private static final String[] WORDS = {"data", "database", "design", "deploy", "dash", "schema", "base"};
+
+    @Test
+    void mergesShardWinnersIntoTheSameRankingAsOneScan() {
+        Random random = new Random(42);
+        int[] tiers = new int[10_000];
+        long[] ids = new long[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            tiers[i] = random.nextInt(3);
+            ids[i] = i * 7_919L % tiers.length;
+        }
+        ShardedSearch.Ranker ranker = (from, to, top) -> {
+            for (int i = from; i < to; i++) {
+                top.offer(tiers[i], ids[i], i);
+            }
+        };
+
+        try (ShardedSearch sequential = new ShardedSearch(1, 1); ShardedSearch sharded = new ShardedSearch(5, 1)) {
+            for (int count : new int[]{1, 20, 1_000}) {
+                assertThat(sharded.top(tiers.length, count, ranker))
+                        .containsExactly(sequential.top(tiers.length, count, ranker));
+            }
+        }
+    }
+
+    @Test
+    void forksOnlyAboveTheThreshold() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<int[]> ranges = new ArrayList<>();
+        ShardedSearch.Ranker ranker = (from, to, top) -> {
+            threads.add(Thread.currentThread().getName());
+            synchronized (ranges) {
+                ranges.add(new int[]{from, to});
+            }
+        };
+
+        try (ShardedSearch search = new ShardedSearch(4, 1_000)) {
+            search.top(999, 10, ranker);
+            assertThat(threads).containsExactly(Thread.currentThread().getName());
+            assertThat(ranges).containsExactly(new int[]{0, 999});
+
+            threads.clear();
+            ranges.clear();
+            search.top(1_000, 10, ranker);
+            assertThat(threads).allMatch(name -> name.startsWith("task-search-"));
+            assertThat(ranges).hasSize(4).allMatch(range -> range[1] - range[0] == 250);
+        }
+    }
+
+    @Test
+    void shardedPagesMatchSequentialPagesThroughEveryCursor() {
+        List<Task> tasks = tasks(5_000, new Random(7));
+        for (long cacheSlots : new long[]{0, 1_000_000}) {
+            TaskSearchService sequential = service(tasks, 1, cacheSlots);
+            TaskSearchService sharded = service(tasks, 4, cacheSlots);
+            try {
+                assertSamePages(sequential, sharded);
+
+                // Leaves dead slots and an unindexed tail behind the sharded slot ranges.
+                for (Task task : tasks(300, new Random(8))) {
+                    Task moved = new Task(task.id() * 13 % 5_000, task.name(), "");
+                    sequential.updateTask(moved);
+                    sharded.updateTask(moved);
+                }
+                assertSamePages(sequential, sharded);
+            } finally {
+                sequential.stop();
+                sharded.stop();
+            }
+        }
+    }
+
+    private static void assertSamePages(TaskSearchService sequential, TaskSearchService sharded) {
+        for (String query : List.of("d", "da", "data", "datab", "database", "base", "sch")) {
+            SearchCursor after = null;
+            do {
+                TaskPage expected = sequential.searchPage(query, after, 50);
+                assertThat(sharded.searchPage(query, after, 50)).as(query).isEqualTo(expected);
+                after = expected.nextCursor();
+            } while (after != null);
+        }
+    }
+
+    private static TaskSearchService service(List<Task> tasks, int shards, long cacheSlots) {
+        TaskSearchService service = new TaskSearchService(event -> { }, Duration.ofMillis(25), cacheSlots, shards, 1);
+        service.replaceAllTasks(tasks);
+        return service;
+    }
+
+    private static List<Task> tasks(int count, Random random) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            tasks.add(new Task((long) i, name, ""));
+        }
+        return tasks;
+    }
+}
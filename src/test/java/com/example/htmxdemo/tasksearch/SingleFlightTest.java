@@ -0,0 +1,93 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    @Test
+    void shouldShareOneComputationBetweenConcurrentCallers() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> calls = new ArrayList<>();
+            calls.add(executor.submit(() -> singleFlight.execute("des", () -> {
+                computations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "result";
+            })));
+            leaderStarted.await();
+            List<Thread> followers = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                calls.add(executor.submit(() -> {
+                    followers.add(Thread.currentThread());
+                    return singleFlight.execute("des", () -> {
+                        computations.incrementAndGet();
+                        return "duplicate";
+                    });
+                }));
+            }
+            // Followers park on the leader's future once they have joined the flight.
+            while (followers.size() < 7 || followers.stream().anyMatch(t -> t.getState() != Thread.State.WAITING)) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> call : calls) {
+                assertThat(call.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(computations).hasValue(1);
+        assertThat(singleFlight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void shouldRecomputeOnceTheFlightHasLanded() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute("de", computations::incrementAndGet);
+        singleFlight.execute("de", computations::incrementAndGet);
+
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void shouldPropagateFailuresAndForgetTheKey() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        assertThatThrownBy(() -> singleFlight.execute("d", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("d", () -> "ok")).isEqualTo("ok");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
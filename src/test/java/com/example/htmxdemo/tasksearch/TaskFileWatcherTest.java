@@ -0,0 +1,97 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskFileWatcherTest {
+
+    @TempDir
+    Path directory;
+
+    private TaskFileWatcher watcher;
+
+    @AfterEach
+    void stopWatcher() throws Exception {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    @Test
+    void shouldStreamTasksAndSkipUnknownFields() throws Exception {
+        Path file = directory.resolve("tasks.json");
+        Files.writeString(file, """
+                [
+                  {"id": 1, "name": "Ship it", "tags": ["a", {"nested": true}], "description": "Now"},
+                  {"description": null, "name": "Test it", "id": 2}
+                ]
+                """);
+        TaskSearchService service = new TaskSearchService(event -> { });
+
+        service.loadTasks(file);
+
+        assertThat(service.getAllTasks()).containsExactly(
+                new Task(1L, "Ship it", "Now"),
+                new Task(2L, "Test it", ""));
+    }
+
+    @Test
+    void shouldRejectTasksWithoutAnIntegerIdNamingTheLine() throws Exception {
+        Path file = directory.resolve("tasks.json");
+        TaskSearchService service = new TaskSearchService(event -> { });
+        int before = service.taskCount();
+
+        for (String id : new String[] {"\"seven\"", "7.5", "true", "{}"}) {
+            Files.writeString(file, """
+                    [
+                      {"id": 1, "name": "Ship it"},
+                      {"name": "Test it", "id": %s}
+                    ]
+                    """.formatted(id));
+
+            assertThatThrownBy(() -> service.loadTasks(file))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Task id must be an integer")
+                    .hasMessageContaining("line 3");
+        }
+        Files.writeString(file, "[{\"id\": 1, \"name\": \"Ship it\"},\n {\"name\": \"Test it\"}]");
+        assertThatThrownBy(() -> service.loadTasks(file)).hasMessageContaining("without id or name ending at line 2");
+        assertThat(service.taskCount()).isEqualTo(before);
+    }
+
+    @Test
+    void shouldReloadWhenFileChangesAndKeepDataWhenReloadFails() throws Exception {
+        Path file = directory.resolve("tasks.json");
+        Files.writeString(file, "[{\"id\": 1, \"name\": \"First\"}]");
+        TaskSearchService service = new TaskSearchService(event -> { });
+        watcher = new TaskFileWatcher(service, file, Duration.ofMillis(100));
+        watcher.start();
+        assertThat(service.search("first")).hasSize(1);
+
+        Files.writeString(file, "[{\"id\": 1, \"name\": \"First\"}, {\"id\": 2, \"name\": \"Second\"}]");
+        awaitUntil(() -> service.taskCount() == 2);
+        assertThat(service.search("second")).extracting(Task::id).containsExactly(2L);
+
+        Files.writeString(file, "[{\"id\": 3, \"name\": ");
+        Thread.sleep(1_000);
+        assertThat(service.taskCount()).isEqualTo(2);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
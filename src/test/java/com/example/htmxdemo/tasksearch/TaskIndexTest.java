@@ -0,0 +1,82 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskIndexTest {
+
+    private static final String ALPHABET = "abcde ABÉé-";
+
+    @Test
+    void shouldMatchLinearContainsScanForEverySubstringLength() {
+        Random random = new Random(42);
+        String[] names = new String[500];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = randomText(random, 1 + random.nextInt(20));
+        }
+        String[] folded = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            folded[i] = names[i].toLowerCase();
+        }
+        TaskIndex index = TaskIndex.build(folded, folded.length);
+
+        for (int q = 0; q < 2_000; q++) {
+            String query = randomText(random, 1 + random.nextInt(6)).toLowerCase();
+            assertThat(index.search(query)).as(query).containsExactly(linearScan(folded, query));
+        }
+    }
+
+    @Test
+    void shouldRestrictMatchesToASlotRange() {
+        Random random = new Random(7);
+        String[] folded = new String[500];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = randomText(random, 1 + random.nextInt(20)).toLowerCase();
+        }
+        TaskIndex index = TaskIndex.build(folded, folded.length);
+
+        for (int q = 0; q < 2_000; q++) {
+            String query = randomText(random, 1 + random.nextInt(6)).toLowerCase();
+            int from = random.nextInt(folded.length + 1);
+            int to = from + random.nextInt(folded.length + 1 - from);
+            int[] expected = Arrays.stream(linearScan(folded, query))
+                    .filter(pos -> pos >= from && pos < to)
+                    .toArray();
+            assertThat(index.search(query, from, to)).as(query + " in [" + from + ", " + to + ")")
+                    .containsExactly(expected);
+        }
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownGrams() {
+        TaskIndex index = TaskIndex.build(new String[] {"design database schema"}, 1);
+
+        assertThat(index.search("x")).isEmpty();
+        assertThat(index.search("schemas")).isEmpty();
+        assertThat(index.search("base sch")).containsExactly(0);
+    }
+
+    private static int[] linearScan(String[] folded, String query) {
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < folded.length; i++) {
+            if (folded[i].contains(query)) {
+                matches.add(i);
+            }
+        }
+        return matches.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+}
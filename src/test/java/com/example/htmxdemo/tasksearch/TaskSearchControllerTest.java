@@ -4,10 +4,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -37,7 +46,7 @@ class TaskSearchControllerTest {
         // Should contain fragment, not full page
         assertTrue(!response.getBody().contains("<!DOCTYPE html>"));
         assertTrue(response.getBody().contains("id=\"task-dropdown\""));
-        // Empty query should show all tasks
+        // Empty query should show the first page of tasks
         assertTrue(response.getBody().contains("Setup development environment"));
         assertTrue(response.getBody().contains("Create user authentication"));
     }
@@ -80,6 +89,21 @@ class TaskSearchControllerTest {
         assertTrue(response.getBody().contains("No tasks found matching your search"));
     }
 
+    @Test
+    void testMisspelledSearchOffersClosestMatches() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/tasksearch/search?query=authetication",
+                "",
+                String.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("Closest matches"));
+        assertTrue(response.getBody().contains("Create user authentication"));
+        assertTrue(response.getBody().contains("Implement two-factor authentication"));
+        assertTrue(!response.getBody().contains("No tasks found"));
+    }
+
     @Test
     void testTaskDetailReturnsFragment() {
         ResponseEntity<String> response = restTemplate.getForEntity("/tasksearch/1", String.class);
@@ -91,6 +115,16 @@ class TaskSearchControllerTest {
         assertTrue(response.getBody().contains("Install necessary tools"));
     }
 
+    @Test
+    void testTaskDetailClosesDropdownOutOfBand() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/tasksearch/1", String.class);
+
+        assertTrue(response.getBody().indexOf("Setup development environment")
+                < response.getBody().indexOf("<div hx-swap-oob=\"true\" id=\"task-dropdown\""));
+        assertTrue(response.getHeaders().getFirst("HX-Trigger").contains("\"taskSelected\""));
+        assertTrue(response.getHeaders().getFirst("HX-Trigger").contains("\"name\":\"Setup development environment\""));
+    }
+
     @Test
     void testServiceLoadsAllTasks() {
         assertEquals(25, service.getAllTasks().size());
@@ -108,4 +142,128 @@ class TaskSearchControllerTest {
         assertTrue(task.isPresent());
         assertEquals("Setup development environment", task.get().name());
     }
+
+    @Test
+    void testEmptyQueryReturnsFirstPageWithLoadMoreTrigger() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/tasksearch/search", "", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().contains("Create user profile page"));
+        assertTrue(!response.getBody().contains("Create API rate limiting"));
+        assertTrue(response.getBody().contains("hx-trigger=\"intersect once\""));
+        assertTrue(response.getBody().contains("cursor=0:20"));
+    }
+
+    @Test
+    void testCursorReturnsNextPageWithoutDropdownWrapper() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/tasksearch/search?query=&cursor=0:20",
+                "",
+                String.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(!response.getBody().contains("id=\"task-dropdown\""));
+        assertTrue(response.getBody().contains("Create API rate limiting"));
+        assertTrue(!response.getBody().contains("Create user profile page"));
+        assertTrue(!response.getBody().contains("Loading more tasks"));
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/tasksearch/search?query=a&cursor=oops",
+                "",
+                String.class
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testServiceRanksWordStartsBeforeInnerMatches() {
+        TaskPage page = service.searchPage("up", null, 3);
+
+        assertEquals(List.of(12L, 1L, 6L), page.tasks().stream().map(Task::id).toList());
+        assertEquals(new SearchCursor(2, 6L), page.nextCursor());
+    }
+
+    @Test
+    void testServicePagesCoverEveryMatchOnce() {
+        List<Long> paged = new ArrayList<>();
+        SearchCursor cursor = null;
+        do {
+            TaskPage page = service.searchPage("e", cursor, 4);
+            page.tasks().forEach(task -> paged.add(task.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        List<Long> all = service.search("e").stream().map(Task::id).toList();
+        assertEquals(all.size(), paged.size());
+        assertTrue(paged.containsAll(all));
+        assertNull(service.searchPage("e", null, all.size()).nextCursor());
+    }
+
+    @Test
+    void testSupersededSearchIsDroppedWithoutRendering() {
+        HttpHeaders newer = new HttpHeaders();
+        newer.set("X-Search-Client", "client-a");
+        newer.set("X-Search-Seq", "2");
+        HttpHeaders older = new HttpHeaders();
+        older.set("X-Search-Client", "client-a");
+        older.set("X-Search-Seq", "1");
+
+        ResponseEntity<String> current = restTemplate.postForEntity(
+                "/tasksearch/search?query=data", new HttpEntity<>("", newer), String.class);
+        ResponseEntity<String> stale = restTemplate.postForEntity(
+                "/tasksearch/search?query=dat", new HttpEntity<>("", older), String.class);
+
+        assertEquals(HttpStatus.OK, current.getStatusCode());
+        assertEquals(HttpStatus.NO_CONTENT, stale.getStatusCode());
+        assertEquals("none", stale.getHeaders().getFirst("HX-Reswap"));
+        assertNull(stale.getBody());
+    }
+
+    @Test
+    void testTaskDetailIsRevalidatedAgainstTheDataVersion() {
+        ResponseEntity<String> first = restTemplate.exchange("/tasksearch/1", HttpMethod.GET,
+                new HttpEntity<>(htmxHeaders()), String.class);
+        String etag = first.getHeaders().getETag();
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertTrue(first.getHeaders().getVary().contains("HX-Request"));
+        assertNotNull(etag);
+
+        HttpHeaders conditional = htmxHeaders();
+        conditional.setIfNoneMatch(etag);
+        ResponseEntity<String> unchanged = restTemplate.exchange("/tasksearch/1", HttpMethod.GET,
+                new HttpEntity<>(conditional), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertNull(unchanged.getBody());
+
+        ResponseEntity<String> page = restTemplate.exchange("/tasksearch/1", HttpMethod.GET,
+                new HttpEntity<>(ifNoneMatch(etag)), String.class);
+        assertEquals(HttpStatus.OK, page.getStatusCode());
+
+        service.addTask(new Task(9_000_001L, "Revalidation probe", ""));
+        try {
+            ResponseEntity<String> changed = restTemplate.exchange("/tasksearch/1", HttpMethod.GET,
+                    new HttpEntity<>(conditional), String.class);
+            assertEquals(HttpStatus.OK, changed.getStatusCode());
+            assertNotEquals(etag, changed.getHeaders().getETag());
+        } finally {
+            service.removeTask(9_000_001L);
+        }
+    }
+
+    private static HttpHeaders htmxHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("HX-Request", "true");
+        return headers;
+    }
+
+    private static HttpHeaders ifNoneMatch(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return headers;
+    }
 }
@@ -0,0 +1,236 @@
+package com.example.htmxdemo.tasksearch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskStoreTest {
+
+    @Test
+    void shouldLookUpTasksById() {
+        TaskStore store = new TaskStore(List.of(
+                new Task(7L, "Write docs", "Explain the API"),
+                new Task(-3L, "Fix bug", null)));
+
+        assertThat(store.get(7L)).contains(new Task(7L, "Write docs", "Explain the API"));
+        assertThat(store.get(-3L)).contains(new Task(-3L, "Fix bug", ""));
+        assertThat(store.get(8L)).isEmpty();
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyAddUpdateAndRemove() {
+        TaskStore store = new TaskStore(List.of(new Task(1L, "Design schema", "Tables")));
+
+        store.add(new Task(2L, "Deploy service", "Ship it"));
+        assertThat(store.update(new Task(1L, "Design database schema", "Tables and keys"))).isTrue();
+        assertThat(store.update(new Task(3L, "Missing", ""))).isFalse();
+        assertThat(store.remove(2L)).isTrue();
+        assertThat(store.remove(2L)).isFalse();
+
+        assertThat(store.all()).containsExactly(new Task(1L, "Design database schema", "Tables and keys"));
+        assertThat(store.snapshot().search("design")).hasSize(1);
+        assertThat(store.snapshot().search("deploy")).isEmpty();
+        assertThatThrownBy(() -> store.add(new Task(1L, "Duplicate", "")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldMatchReferenceModelAcrossManyMutations() {
+        Random random = new Random(7);
+        TaskStore store = new TaskStore();
+        Map<Long, Task> model = new LinkedHashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(2_000);
+            Task task = new Task(id, "task " + random.nextInt(500), "description " + i);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    if (!model.containsKey(id)) {
+                        store.add(task);
+                        model.put(id, task);
+                    }
+                }
+                case 1 -> assertThat(store.update(task)).isEqualTo(model.replace(id, task) != null);
+                default -> assertThat(store.remove(id)).isEqualTo(model.remove(id) != null);
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(model.size());
+        for (long id = 0; id < 2_000; id++) {
+            assertThat(store.get(id)).isEqualTo(Optional.ofNullable(model.get(id)));
+        }
+        TaskStore.Snapshot snapshot = store.snapshot();
+        List<Long> matches = new ArrayList<>();
+        for (int slot : snapshot.search("task 4")) {
+            matches.add(snapshot.id(slot));
+        }
+        assertThat(matches).containsExactlyInAnyOrderElementsOf(
+                model.values().stream().filter(t -> t.name().contains("task 4")).map(Task::id).toList());
+    }
+
+    @Test
+    void shouldServeConsistentSnapshotsWhileWritersMutate() throws Exception {
+        TaskStore store = new TaskStore();
+        for (long id = 0; id < 1_000; id++) {
+            store.add(new Task(id, "stable " + id, "row"));
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                long id = 1_000 + (i % 300);
+                if (!store.update(new Task(id, "churn " + i, "row"))) {
+                    store.add(new Task(id, "churn " + i, "row"));
+                }
+                if (i % 3 == 0) {
+                    store.remove(1_000 + ((i * 7L) % 300));
+                }
+            }
+        });
+        Thread reader = new Thread(() -> {
+            try {
+                while (writer.isAlive()) {
+                    assertThat(store.snapshot().search("stable")).hasSize(1_000);
+                    assertThat(store.get(500L)).isPresent();
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+
+        assertThat(failure.get()).isNull();
+    }
+
+    @Test
+    void shouldBehaveLikeHashMapForPrimitiveKeys() {
+        Random random = new Random(11);
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> reference = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000) - 2_500L;
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                reference.put(key, i);
+            } else {
+                assertThat(map.remove(key)).isEqualTo(reference.getOrDefault(key, LongIntHashMap.MISSING));
+                reference.remove(key);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(reference.size());
+        for (long key = -2_500; key < 2_500; key++) {
+            assertThat(map.get(key)).isEqualTo(reference.getOrDefault(key, LongIntHashMap.MISSING));
+        }
+    }
+
+    @Test
+    void shouldLeaveEarlierSegmentedMapsUntouchedByWrites() {
+        Random random = new Random(13);
+        SegmentedLongIntMap map = SegmentedLongIntMap.of(new LongIntHashMap(4));
+        Map<Long, Integer> reference = new HashMap<>();
+        List<SegmentedLongIntMap> versions = new ArrayList<>();
+        List<Map<Long, Integer>> expected = new ArrayList<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(20_000) - 10_000L;
+            if (random.nextInt(4) == 0) {
+                map = map.without(key);
+                reference.remove(key);
+            } else {
+                map = map.with(key, i);
+                reference.put(key, i);
+            }
+            if (i % 5_000 == 0) {
+                versions.add(map);
+                expected.add(new HashMap<>(reference));
+            }
+        }
+        versions.add(map);
+        expected.add(reference);
+
+        for (int v = 0; v < versions.size(); v++) {
+            SegmentedLongIntMap version = versions.get(v);
+            Map<Long, Integer> entries = expected.get(v);
+            assertThat(version.size()).isEqualTo(entries.size());
+            for (long key = -10_000; key < 10_000; key++) {
+                assertThat(version.get(key)).isEqualTo(entries.getOrDefault(key, SegmentedLongIntMap.MISSING));
+            }
+        }
+    }
+
+    @Test
+    void shouldCopyASegmentThatGrowsOnlyWithTheSquareRootOfTheSize() {
+        for (int size : new int[] {10_000, 100_000, 1_000_000}) {
+            LongIntHashMap entries = new LongIntHashMap(size);
+            for (int i = 0; i < size; i++) {
+                entries.put(i, i);
+            }
+            SegmentedLongIntMap map = SegmentedLongIntMap.of(entries).with(size, size);
+
+            assertThat(map.size() / map.segmentCount()).isLessThanOrEqualTo(4 * (int) Math.sqrt(size));
+        }
+    }
+
+    @Test
+    void shouldIndexAppendedRowsInTheBackground() throws InterruptedException {
+        TaskStore store = new TaskStore();
+        for (long id = 0; id < 5_000; id++) {
+            store.add(new Task(id, "Task " + id, null));
+        }
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (store.snapshot().size() - store.snapshot().index().size() > 5_000 / 8
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        TaskStore.Snapshot snapshot = store.snapshot();
+        assertThat(snapshot.size() - snapshot.index().size()).isLessThanOrEqualTo(5_000 / 8);
+        assertThat(snapshot.search("task 4999")).hasSize(1);
+    }
+
+    @Test
+    void shouldCompactDeadRowsInTheBackgroundWithoutLosingConcurrentWrites() throws InterruptedException {
+        TaskStore store = new TaskStore();
+        Map<Long, Task> model = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = i % 500;
+            Task task = new Task(id, "task " + i, "revision " + i);
+            if (i % 7 == 3) {
+                store.remove(id);
+                model.remove(id);
+            } else if (!store.update(task)) {
+                store.add(task);
+            }
+            if (i % 7 != 3) {
+                model.put(id, task);
+            }
+        }
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (store.snapshot().size() - store.size() > 256 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(store.snapshot().size() - store.size()).isLessThanOrEqualTo(256);
+        assertThat(store.size()).isEqualTo(model.size());
+        for (long id = 0; id < 500; id++) {
+            assertThat(store.get(id)).isEqualTo(Optional.ofNullable(model.get(id)));
+        }
+        assertThat(store.snapshot().search("task 19999")).hasSize(1);
+    }
+}
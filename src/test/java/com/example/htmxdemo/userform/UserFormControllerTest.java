@@ -6,6 +6,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -67,6 +69,31 @@ class UserFormControllerTest {
         assertThat(response.getBody()).contains("is-invalid");
     }
 
+    @Test
+    void shouldValidateOnlyTheChangedField() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/userform/validate/phone?phone=123", null, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("id=\"phone-field\"", "is-invalid", "Phone must be exactly 10 digits");
+        assertThat(response.getBody()).doesNotContain("id=\"name\"", "id=\"email\"", "tag-list");
+    }
+
+    @Test
+    void shouldReturnFieldWithoutErrorsWhenValid() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            "/userform/validate/email?email=john@example.com", null, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("value=\"john@example.com\"").doesNotContain("is-invalid");
+    }
+
+    @Test
+    void shouldRejectUnknownFieldValidation() {
+        ResponseEntity<String> response = restTemplate.postForEntity("/userform/validate/tags?tags=x", null, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
     @Test
     void shouldReturnTagListFragmentOnAddTag() {
         // First get the form to initialize session
@@ -82,6 +109,19 @@ class UserFormControllerTest {
         assertThat(response.getBody()).contains("newtag");
     }
 
+    @Test
+    void shouldUpdateTagListAndInputTogetherOnDuplicateTag() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            "/userform/add-tag?newTag=HTMX-Enthusiast",
+            null,
+            String.class
+        );
+
+        assertThat(response.getBody()).contains("id=\"tag-list\"");
+        assertThat(response.getBody()).contains("<div hx-swap-oob=\"true\" id=\"tag-input\"");
+        assertThat(response.getBody()).contains("Tag already exists", "value=\"HTMX-Enthusiast\"");
+    }
+
     @Test
     void shouldReturnTagListFragmentOnRemoveTag() {
         // First get the form to initialize session
@@ -127,4 +167,18 @@ class UserFormControllerTest {
 
         assertThat(response.getBody()).contains("is-invalid");
     }
+
+    @Test
+    void shouldKeepStoredTagsWhenRenderingAPostedForm() {
+        ResponseEntity<String> invalid = restTemplate.postForEntity("/userform/submit", "name=&email=&phone=",
+            String.class);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("name", "John Doe");
+        form.add("email", "john@example.com");
+        form.add("phone", "1234567890");
+        ResponseEntity<String> submitted = restTemplate.postForEntity("/userform/submit", form, String.class);
+
+        assertThat(invalid.getBody()).contains("is-invalid", "htmx-enthusiast");
+        assertThat(submitted.getBody()).contains("submitted successfully", "htmx-enthusiast, spring-boot-dev");
+    }
 }
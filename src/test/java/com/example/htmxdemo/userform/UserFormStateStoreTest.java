@@ -0,0 +1,166 @@
+package com.example.htmxdemo.userform;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserFormStateStoreTest {
+
+    private final UserFormService userFormService = new UserFormService();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Test
+    void tokenRoundTripsFormState() {
+        TokenUserFormStateStore store = tokenStore("secret", true);
+        UserForm form = userFormService.initializeForm();
+        form.setName("Jane");
+        form.setEmail("jane@example.com");
+        form.getTags().add("ünïcode");
+
+        UserForm decoded = store.decode(store.encode(form));
+
+        assertThat(decoded.getName()).isEqualTo("Jane");
+        assertThat(decoded.getEmail()).isEqualTo("jane@example.com");
+        assertThat(decoded.getPhone()).isEmpty();
+        assertThat(decoded.getTags()).containsExactly("htmx-enthusiast", "spring-boot-dev", "ünïcode");
+    }
+
+    @Test
+    void tokenRoundTripsFieldsLongerThanModifiedUtf8Allows() {
+        TokenUserFormStateStore store = tokenStore("secret", true);
+        UserForm form = userFormService.initializeForm();
+        form.setName("é".repeat(40_000));
+        form.getTags().add("ü".repeat(40_000));
+
+        UserForm decoded = store.decode(store.encode(form));
+
+        assertThat(decoded.getName()).isEqualTo(form.getName());
+        assertThat(decoded.getTags()).containsExactlyElementsOf(form.getTags());
+    }
+
+    @Test
+    void compressionShrinksRepetitiveTokens() {
+        UserForm form = userFormService.initializeForm();
+        for (int i = 0; i < 50; i++) {
+            form.getTags().add("repeated-tag-" + i);
+        }
+
+        String plain = tokenStore("secret", false).encode(form);
+        String compressed = tokenStore("secret", true).encode(form);
+
+        assertThat(compressed.length()).isLessThan(plain.length() / 2);
+        assertThat(tokenStore("secret", true).decode(compressed).getTags()).hasSize(52);
+    }
+
+    @Test
+    void rejectsTamperedOrForeignTokens() {
+        TokenUserFormStateStore store = tokenStore("secret", true);
+        String token = store.encode(userFormService.initializeForm());
+        char last = token.charAt(token.length() - 1);
+        String tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertThat(store.decode(tampered)).isNull();
+        assertThat(tokenStore("other", true).decode(token)).isNull();
+        assertThat(store.decode("not a token")).isNull();
+        assertThat(store.load(tampered, request).getTags()).containsExactly("htmx-enthusiast", "spring-boot-dev");
+    }
+
+    @Test
+    void issuesTokensUpToTheLengthItAcceptsAndRefusesLargerStates() {
+        TokenUserFormStateStore store = tokenStore("secret", false);
+        UserForm form = userFormService.initializeForm();
+        form.getTags().clear();
+        form.getTags().add("");
+        String largest = null;
+        while (true) {
+            form.getTags().set(0, form.getTags().get(0) + "x");
+            try {
+                largest = store.encode(form);
+            } catch (UserFormStateStore.StateTooLargeException e) {
+                break;
+            }
+        }
+        String atLimit = largest;
+
+        assertThat(atLimit).hasSize(TokenUserFormStateStore.MAX_TOKEN_LENGTH);
+        assertThat(store.decode(atLimit).getTags().get(0)).hasSize(form.getTags().get(0).length() - 1);
+        UserFormStateStore.Update<Void> update = store.update(atLimit, request, stored -> null);
+        assertThat(update.handle()).isEqualTo(atLimit);
+        assertThatThrownBy(() -> store.update(atLimit, request, stored -> stored.getTags().add("one more")))
+                .isInstanceOf(UserFormStateStore.StateTooLargeException.class);
+    }
+
+    @Test
+    void cachedStoreAppliesConcurrentChangesWithoutLosingAny() throws Exception {
+        CachedUserFormStateStore store = new CachedUserFormStateStore(userFormService, 100, Duration.ofMinutes(1));
+        String handle = store.update(null, request, form -> null).handle();
+
+        int threads = 16;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String tag = "tag-" + thread + "-" + i;
+                    store.update(handle, request, form -> {
+                        userFormService.addTag(form, tag);
+                        return null;
+                    });
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(store.load(handle, request).getTags()).hasSize(2 + threads * perThread);
+    }
+
+    @Test
+    void cachedStoreOnlyKeepsFormsUnderHandlesItIssued() {
+        CachedUserFormStateStore store = new CachedUserFormStateStore(userFormService, 100, Duration.ofMinutes(1));
+
+        UserFormStateStore.Update<Void> update = store.update("chosen-by-client", request, form -> {
+            form.setName("Jane");
+            return null;
+        });
+
+        assertThat(update.handle()).isNotEqualTo("chosen-by-client");
+        assertThat(update.form().getName()).isEqualTo("Jane");
+        assertThat(store.load(update.handle(), request).getName()).isEqualTo("Jane");
+        assertThat(store.load("chosen-by-client", request).getName()).isEmpty();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void cachedStoreEvictsBeyondItsBound() {
+        CachedUserFormStateStore store = new CachedUserFormStateStore(userFormService, 10, Duration.ofMinutes(1));
+        for (int i = 0; i < 100; i++) {
+            store.update(null, request, form -> null);
+        }
+
+        assertThat(store.size()).isLessThanOrEqualTo(10);
+    }
+
+    private TokenUserFormStateStore tokenStore(String secret, boolean compress) {
+        return new TokenUserFormStateStore(userFormService, secret.getBytes(StandardCharsets.UTF_8), compress);
+    }
+}
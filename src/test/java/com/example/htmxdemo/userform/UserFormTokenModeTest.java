@@ -0,0 +1,80 @@
+package com.example.htmxdemo.userform;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"userform.state.mode=token", "userform.state.secret=test-secret"})
+class UserFormTokenModeTest {
+
+    private static final Pattern FORM_STATE = Pattern.compile("name=\"formState\" value=\"([^\"]*)\"");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void carriesTagsBetweenRequestsInTheToken() {
+        ResponseEntity<String> first = restTemplate.postForEntity("/userform/add-tag?newTag=first", null, String.class);
+        String token = formState(first.getBody());
+
+        ResponseEntity<String> second = restTemplate.postForEntity(
+                "/userform/add-tag?newTag=second&formState=" + token, null, String.class);
+
+        assertThat(second.getBody()).contains("first", "second", "htmx-enthusiast");
+        assertThat(second.getHeaders().get("Set-Cookie")).isNull();
+    }
+
+    @Test
+    void removesTagFromTheTokenState() {
+        String token = formState(restTemplate.postForEntity("/userform/add-tag?newTag=keep", null, String.class).getBody());
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/userform/remove-tag?index=0&formState=" + token, null, String.class);
+
+        assertThat(response.getBody()).contains("keep").doesNotContain("htmx-enthusiast");
+    }
+
+    @Test
+    void reportsDuplicateTagsFromTheTokenState() {
+        String token = formState(restTemplate.postForEntity("/userform/add-tag?newTag=dup", null, String.class).getBody());
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/userform/add-tag?newTag=DUP&formState=" + token, null, String.class);
+
+        assertThat(response.getBody()).contains("Tag already exists");
+    }
+
+    @Test
+    void refusesATagThatWouldOverflowTheTokenAndKeepsTheTagsSoFar() {
+        String token = formState(restTemplate.postForEntity("/userform/add-tag?newTag=kept", null, String.class).getBody());
+        String hugeTag = new Random(42).ints(2 * TokenUserFormStateStore.MAX_TOKEN_LENGTH, 'a', 'z' + 1)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("newTag", hugeTag);
+        body.add("formState", token);
+
+        ResponseEntity<String> response = restTemplate.postForEntity("/userform/add-tag", body, String.class);
+
+        assertThat(response.getBody()).contains("Too many tags", "kept");
+        assertThat(formState(response.getBody())).isEqualTo(token);
+    }
+
+    private static String formState(String html) {
+        Matcher matcher = FORM_STATE.matcher(html);
+        assertThat(matcher.find()).isTrue();
+        assertThat(matcher.group(1)).isNotEmpty();
+        return matcher.group(1);
+    }
+}
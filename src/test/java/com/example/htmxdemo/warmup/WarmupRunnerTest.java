@@ -0,0 +1,45 @@
+package com.example.htmxdemo.warmup;
+
+import com.example.htmxdemo.counter.CounterService;
+import com.example.htmxdemo.fragment.FragmentCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "warmup.iterations=2")
+@ActiveProfiles("prod")
+class WarmupRunnerTest {
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private CounterService counterService;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void warmsHotEndpointsWithoutSideEffectsBeforeReadiness(CapturedOutput output) {
+        int requests = WarmupRunner.REQUESTS.size() * 3;
+
+        assertThat(output).contains("Warm-up sent " + requests + " requests").doesNotContain("Warm-up request");
+        assertThat(fragmentCache.size()).isPositive();
+        assertThat(counterService.getCount()).isZero();
+        assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(restTemplate.getForObject("/actuator/health/readiness", String.class)).contains("UP");
+    }
+}